@@ -0,0 +1,183 @@
+import java.util.NoSuchElementException;
+
+/**
+ * A growable double-ended queue of primitive chars backed by a circular array.
+ * It is RingDeque without boxing: no Character is ever created.
+ */
+class CharRingDeque {
+
+	/**
+	 * The circular array, its length is a power of two.
+	 */
+	private char[] elements;
+
+	/**
+	 * Index of the first element.
+	 */
+	private int head;
+
+	/**
+	 * The number of elements.
+	 */
+	private int size;
+
+	/**
+	 * Constructor, initializes an empty deque.
+	 */
+	public CharRingDeque(){
+
+		this(16);
+	}
+
+	/**
+	 * Constructor, initializes an empty deque with room for initCapacity chars.
+	 * @param initCapacity the number of chars that fit before growing.
+	 */
+	public CharRingDeque(int initCapacity){
+
+		elements = new char[Math.max(2, Integer.highestOneBit(Math.max(1, initCapacity - 1)) << 1)];
+	}
+
+	/**
+	 * Returns the number of chars.
+	 * @return an int.
+	 */
+	public int size(){
+
+		return size;
+	}
+
+	/**
+	 * Checks whether the deque is empty.
+	 * @return a boolean value.
+	 */
+	public boolean isEmpty(){
+
+		return size == 0;
+	}
+
+	/**
+	 * Doubles the array, unwrapping the chars to start at index 0.
+	 */
+	private void grow(){
+
+		int n = elements.length;
+		if(n >= 1 << 30) {
+			throw new IllegalStateException("Deque too large");
+		}
+		char[] a = new char[n * 2];
+		int firstPart = Math.min(size, n - head);
+		System.arraycopy(elements, head, a, 0, firstPart);
+		System.arraycopy(elements, 0, a, firstPart, size - firstPart);
+		elements = a;
+		head = 0;
+	}
+
+	/**
+	 * Adds ch at the front.
+	 * @param ch a character.
+	 */
+	public void addFirst(char ch){
+
+		if(size == elements.length) {
+			grow();
+		}
+		head = (head - 1) & (elements.length - 1);
+		elements[head] = ch;
+		size++;
+	}
+
+	/**
+	 * Adds ch at the back.
+	 * @param ch a character.
+	 */
+	public void addLast(char ch){
+
+		if(size == elements.length) {
+			grow();
+		}
+		elements[(head + size) & (elements.length - 1)] = ch;
+		size++;
+	}
+
+	/**
+	 * Adds every char of s at the back, in order.
+	 * @param s a CharSequence.
+	 */
+	public void addLast(CharSequence s){
+
+		for(int i = 0; i < s.length(); i++) {
+			addLast(s.charAt(i));
+		}
+	}
+
+	/**
+	 * Removes the first char.
+	 * @return the char.
+	 * @throws NoSuchElementException if the deque is empty.
+	 */
+	public char removeFirst(){
+
+		if(size == 0) {
+			throw new NoSuchElementException();
+		}
+		char ch = elements[head];
+		head = (head + 1) & (elements.length - 1);
+		size--;
+		return ch;
+	}
+
+	/**
+	 * Removes the last char.
+	 * @return the char.
+	 * @throws NoSuchElementException if the deque is empty.
+	 */
+	public char removeLast(){
+
+		if(size == 0) {
+			throw new NoSuchElementException();
+		}
+		size--;
+		return elements[(head + size) & (elements.length - 1)];
+	}
+
+	/**
+	 * Returns the char at position i from the front.
+	 * @param i an index between 0 and size()-1.
+	 * @return a character.
+	 * @throws NoSuchElementException if i is out of range.
+	 */
+	public char get(int i){
+
+		if(i < 0 || i >= size) {
+			throw new NoSuchElementException("Index " + i + " of " + size);
+		}
+		return elements[(head + i) & (elements.length - 1)];
+	}
+
+	/**
+	 * Removes every char, keeping the array.
+	 */
+	public void clear(){
+
+		head = 0;
+		size = 0;
+	}
+
+	/**
+	 * Returns the chars from front to back as a String.
+	 * @return a String.
+	 */
+	@Override
+	public String toString(){
+
+		int firstPart = Math.min(size, elements.length - head);
+		if(firstPart == size) {  /* not wrapped, one copy. */
+			return new String(elements, head, size);
+		}
+		char[] a = new char[size];
+		System.arraycopy(elements, head, a, 0, firstPart);
+		System.arraycopy(elements, 0, a, firstPart, size - firstPart);
+		return new String(a);
+	}
+}
@@ -0,0 +1,178 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread-safe strie with lock-free operations.
+ * Readers never block: contains and prefix queries only read volatile fields.
+ * Writers add children by compare-and-set of a node's immutable child table
+ * and flip a node's end marker by compare-and-set, retrying on contention
+ * instead of taking locks.
+ *
+ * Linearizability: insert and remove take effect at their successful
+ * compare-and-set of the end marker, or, when they change nothing, at the
+ * read that found the marker already in the wanted state. contains takes
+ * effect at its read of the end marker, or at the read that found a child
+ * missing. This holds because nodes are never unlinked: remove only clears
+ * the end marker, so a path that is missing was never there.
+ * As a consequence, removed words leave their nodes behind: memory is
+ * bounded by every word ever inserted, not by the words present, and under
+ * sustained insert/remove churn of distinct words it grows without bound.
+ * Such workloads should periodically replace the strie with compact(),
+ * which copies only the live words.
+ *
+ * numWords changes by exactly one per successful insert or remove, right
+ * after its linearization point, so it is exact whenever no writer is in
+ * between those two steps and never drifts.
+ * Prefix queries are weakly consistent: they see every word present for
+ * the whole query and may or may not see words changed during it.
+ */
+public class ConcurrentStrie{
+
+	/**
+	 * The root of the strie.
+	 */
+	private final ConcurrentStrieNode root = new ConcurrentStrieNode();
+
+	/**
+	 * The number of words represented by the strie.
+	 */
+	private final AtomicInteger numWords = new AtomicInteger();
+
+	/**
+	 * Returns number of words in the strie.
+	 * @return an int.
+	 */
+	public int numWords(){
+
+		return numWords.get();
+	}
+
+	/**
+	 * Insert word into the strie.
+	 * @param word a String.
+	 * @return true if word was added; false if it was already present.
+	 */
+	public boolean insert(String word){
+
+		if(word == null || word.isEmpty()) {
+			return false;
+		}
+
+		ConcurrentStrieNode cur = root;
+		for(int i = 0; i < word.length(); i++) {
+			cur = cur.getOrAddChild(word.charAt(i));
+		}
+
+		if(cur.setEnd()) {
+			numWords.incrementAndGet();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the node reached by following s, or null if none.
+	 * @param s a String.
+	 * @return a ConcurrentStrieNode.
+	 */
+	private ConcurrentStrieNode find(String s){
+
+		ConcurrentStrieNode cur = root;
+		for(int i = 0; i < s.length() && cur != null; i++) {
+			cur = cur.getChild(s.charAt(i));
+		}
+		return cur;
+	}
+
+	/**
+	 * Returns true if strie contains the given word. Otherwise returns false.
+	 * Never blocks.
+	 * @param word a String.
+	 * @return a boolean value.
+	 */
+	public boolean contains(String word){
+
+		if(word == null || word.isEmpty()) {
+			return false;
+		}
+
+		ConcurrentStrieNode n = find(word);
+		return n != null && n.isEnd();
+	}
+
+	/**
+	 * Removes the given word from the strie.
+	 * If word is not present in strie, return false.
+	 * Otherwise, remove word and return true.
+	 * @param word a String.
+	 * @return a boolean value.
+	 */
+	public boolean remove(String word){
+
+		if(word == null || word.isEmpty()) {
+			return false;
+		}
+
+		ConcurrentStrieNode n = find(word);
+		if(n != null && n.unsetEnd()) {
+			numWords.decrementAndGet();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns a new strie holding only the words present, without the
+	 * nodes left behind by removed words. The copy is weakly consistent,
+	 * like a prefix query: words changed while it runs may or may not be in it,
+	 * so callers swap it in while writers are paused or replay those changes.
+	 * @return a new ConcurrentStrie.
+	 */
+	public ConcurrentStrie compact(){
+
+		ConcurrentStrie copy = new ConcurrentStrie();
+		for(String word : wordsWithPrefix("")) {
+			copy.insert(word);
+		}
+		return copy;
+	}
+
+	/**
+	 * Returns the words starting with prefix, in ascending order.
+	 * Never blocks.
+	 * @param prefix a String.
+	 * @return a SimpleList of Strings, empty if no word starts with prefix.
+	 */
+	public SimpleList<String> wordsWithPrefix(String prefix){
+
+		SimpleList<String> strList = new SimpleList<String>();
+		if(prefix == null) {
+			return strList;
+		}
+
+		ConcurrentStrieNode n = find(prefix);
+		if(n != null) {
+			wordsHelper(n, new StringBuilder(prefix), strList);
+		}
+		return strList;
+	}
+
+	/**
+	 * Adds the words below n to strList in preorder.
+	 * @param n the current node.
+	 * @param s the characters on the path to n, restored before returning.
+	 * @param strList the string list.
+	 */
+	private void wordsHelper(ConcurrentStrieNode n, StringBuilder s, SimpleList<String> strList){
+
+		if(n.isEnd() && s.length() > 0) {
+			strList.addLast(s.toString());
+		}
+
+		ConcurrentStrieNode.Children c = n.children();  /* one consistent table for this node. */
+		for(int i = 0; i < c.keys.length; i++) {
+			s.append(c.keys[i]);
+			wordsHelper(c.nodes[i], s, strList);
+			s.setLength(s.length() - 1);
+		}
+	}
+}
@@ -0,0 +1,165 @@
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A node of a ConcurrentStrie.
+ * Children are held in an immutable sorted table that is replaced as a
+ * whole by compare-and-set, so readers always see a consistent table
+ * without locking. The end marker is also changed by compare-and-set.
+ * Nodes are never unlinked once published.
+ */
+class ConcurrentStrieNode {
+
+	/**
+	 * Updater for children.
+	 */
+	private static final AtomicReferenceFieldUpdater<ConcurrentStrieNode, Children> CHILDREN =
+			AtomicReferenceFieldUpdater.newUpdater(ConcurrentStrieNode.class, Children.class, "children");
+
+	/**
+	 * Updater for end.
+	 */
+	private static final AtomicIntegerFieldUpdater<ConcurrentStrieNode> END =
+			AtomicIntegerFieldUpdater.newUpdater(ConcurrentStrieNode.class, "end");
+
+	/**
+	 * An immutable sorted table of children.
+	 */
+	static final class Children {
+
+		/**
+		 * The table shared by every node without children.
+		 */
+		static final Children EMPTY = new Children(new char[0], new ConcurrentStrieNode[0]);
+
+		/**
+		 * Sorted keys of the children.
+		 */
+		final char[] keys;
+
+		/**
+		 * Child nodes, nodes[i] is the child for keys[i].
+		 */
+		final ConcurrentStrieNode[] nodes;
+
+		/**
+		 * Constructor.
+		 * @param keys sorted keys.
+		 * @param nodes the matching nodes.
+		 */
+		Children(char[] keys, ConcurrentStrieNode[] nodes){
+			this.keys = keys;
+			this.nodes = nodes;
+		}
+
+		/**
+		 * Returns the index of ch in keys, or (-(insertion point) - 1) if absent.
+		 * @param ch a character.
+		 * @return an int.
+		 */
+		int indexOf(char ch){
+			return java.util.Arrays.binarySearch(keys, ch);
+		}
+
+		/**
+		 * Returns a copy of this table with ch mapped to node inserted at i.
+		 * @param i the insertion point.
+		 * @param ch a character.
+		 * @param node a node.
+		 * @return a new table.
+		 */
+		Children with(int i, char ch, ConcurrentStrieNode node){
+			int n = keys.length;
+			char[] k = new char[n + 1];
+			ConcurrentStrieNode[] v = new ConcurrentStrieNode[n + 1];
+			System.arraycopy(keys, 0, k, 0, i);
+			System.arraycopy(nodes, 0, v, 0, i);
+			k[i] = ch;
+			v[i] = node;
+			System.arraycopy(keys, i, k, i + 1, n - i);
+			System.arraycopy(nodes, i, v, i + 1, n - i);
+			return new Children(k, v);
+		}
+	}
+
+	/**
+	 * The current table of children.
+	 */
+	private volatile Children children = Children.EMPTY;
+
+	/**
+	 * 1 if this node ends a word, 0 otherwise.
+	 */
+	private volatile int end;
+
+	/**
+	 * Returns the current table of children. It never changes once read.
+	 * @return a Children table.
+	 */
+	Children children(){
+
+		return children;
+	}
+
+	/**
+	 * Returns the child for ch, or null if there is none.
+	 * @param ch a character.
+	 * @return a ConcurrentStrieNode.
+	 */
+	ConcurrentStrieNode getChild(char ch){
+
+		Children c = children;
+		int i = c.indexOf(ch);
+		return i >= 0 ? c.nodes[i] : null;
+	}
+
+	/**
+	 * Returns the child for ch, adding a new one if there is none.
+	 * @param ch a character.
+	 * @return the child that is linked under ch.
+	 */
+	ConcurrentStrieNode getOrAddChild(char ch){
+
+		ConcurrentStrieNode created = null;
+		while(true) {
+			Children c = children;
+			int i = c.indexOf(ch);
+			if(i >= 0) {  /* already there, possibly added by another thread. */
+				return c.nodes[i];
+			}
+			if(created == null) {
+				created = new ConcurrentStrieNode();
+			}
+			if(CHILDREN.compareAndSet(this, c, c.with(-(i + 1), ch, created))) {
+				return created;
+			}
+		}
+	}
+
+	/**
+	 * Checks whether this node ends a word.
+	 * @return a boolean value.
+	 */
+	boolean isEnd(){
+
+		return end != 0;
+	}
+
+	/**
+	 * Marks this node as the end of a word.
+	 * @return true if it was not marked before.
+	 */
+	boolean setEnd(){
+
+		return END.compareAndSet(this, 0, 1);
+	}
+
+	/**
+	 * Unmarks this node as the end of a word.
+	 * @return true if it was marked before.
+	 */
+	boolean unsetEnd(){
+
+		return END.compareAndSet(this, 1, 0);
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * A read-only minimal acyclic automaton (DAWG) built by DawgBuilder.
+ * It is a strie whose equivalent suffix subtrees are shared, so a StrieNode
+ * may have several parents. It answers contains and word enumeration the
+ * same way Strie does.
+ */
+public class Dawg{
+
+	/**
+	 * The root of the automaton.
+	 */
+	private final StrieNode root;
+
+	/**
+	 * The number of words represented.
+	 */
+	private final int numWords;
+
+	/**
+	 * The number of distinct nodes, including the root.
+	 */
+	private final int numNodes;
+
+	/**
+	 * Constructor, used by DawgBuilder.
+	 * @param root the root of the automaton.
+	 * @param numWords the number of words represented.
+	 * @param numNodes the number of distinct nodes, including the root.
+	 */
+	Dawg(StrieNode root, int numWords, int numNodes){
+
+		this.root = root;
+		this.numWords = numWords;
+		this.numNodes = numNodes;
+	}
+
+	/**
+	 * Returns number of words represented.
+	 * @return an int.
+	 */
+	public int numWords(){
+
+		return numWords;
+	}
+
+	/**
+	 * Returns the number of distinct nodes, including the root.
+	 * @return an int.
+	 */
+	public int numNodes(){
+
+		return numNodes;
+	}
+
+	/**
+	 * Returns true if the automaton contains the given word. Otherwise returns false.
+	 * @param word a String.
+	 * @return a boolean value.
+	 */
+	public boolean contains(String word){
+
+		if(word == null || numWords == 0) {
+			return false;
+		}
+
+		StrieNode cur = root;
+		for(int i = 0; i < word.length() && cur != null; i++) {
+			cur = cur.getChild(word.charAt(i));
+		}
+		return cur != null && cur.isEnd();
+	}
+
+	/**
+	 * Returns a list of all the words represented, in ascending order.
+	 * @return a SimpleList of Strings, or null if there are no words.
+	 */
+	public SimpleList<String> getStrieWords(){
+
+		if(numWords == 0) {
+			return null;
+		}
+
+		SimpleList<String> strList = new SimpleList<String>();
+		getStrieWordsHelper(root, new StringBuilder(), strList);
+		return strList;
+	}
+
+	/**
+	 * Adds the words below n to strList in preorder.
+	 * @param n the current node.
+	 * @param s the characters on the path to n, restored before returning.
+	 * @param strList the string list.
+	 */
+	private void getStrieWordsHelper(StrieNode n, StringBuilder s, SimpleList<String> strList){
+
+		if(n.isEnd()) {
+			strList.addLast(s.toString());
+		}
+
+		StrieChildMap children = n.getAllChildren();
+		for(int i = 0; i < children.size(); i++) {
+			s.append(children.keyAt(i));
+			getStrieWordsHelper(children.childAt(i), s, strList);
+			s.setLength(s.length() - 1);
+		}
+	}
+}
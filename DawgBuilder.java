@@ -0,0 +1,244 @@
+/**
+ * Builds a minimal acyclic automaton (DAWG) from words given in ascending order.
+ * Equivalent suffix subtrees are merged as the words are added, so that
+ * endings shared by many words such as -ing or -tion are stored once.
+ * Only the path of the previous word is ever unminimized, which is what
+ * makes sorted input necessary.
+ */
+public class DawgBuilder{
+
+	/**
+	 * The root of the automaton.
+	 */
+	private StrieNode root;
+
+	/**
+	 * Nodes on the path of the previous word, path[d] is reached after d characters.
+	 */
+	private StrieNode[] path;
+
+	/**
+	 * The previous word added.
+	 */
+	private String previous;
+
+	/**
+	 * Canonical node for each set of equivalent nodes already minimized.
+	 */
+	private java.util.Map<Signature, StrieNode> register;
+
+	/**
+	 * The number of words added.
+	 */
+	private int numWords;
+
+	/**
+	 * The number of nodes a plain strie of the same words would have, including the root.
+	 */
+	private int trieNodes;
+
+	/**
+	 * Set once build() has been called.
+	 */
+	private boolean built;
+
+	/**
+	 * Wraps a node so that equal signatures mean equivalent nodes:
+	 * same end marker and the same children, by identity, under the same characters.
+	 * Only valid once the children of the node are themselves minimized.
+	 */
+	private static class Signature{
+
+		/**
+		 * The node this signature describes.
+		 */
+		final StrieNode node;
+
+		/**
+		 * The hash code, computed once.
+		 */
+		final int hash;
+
+		/**
+		 * Constructor.
+		 * @param node a node whose children are all registered.
+		 */
+		Signature(StrieNode node){
+
+			this.node = node;
+			StrieChildMap children = node.getAllChildren();
+			int h = node.isEnd() ? 1 : 0;
+			for(int i = 0; i < children.size(); i++) {
+				h = 31 * h + children.keyAt(i);
+				h = 31 * h + System.identityHashCode(children.childAt(i));
+			}
+			hash = h;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(Object o){
+
+			if(!(o instanceof Signature)) {
+				return false;
+			}
+			StrieNode other = ((Signature) o).node;
+			if(other.isEnd() != node.isEnd()) {
+				return false;
+			}
+			StrieChildMap a = node.getAllChildren();
+			StrieChildMap b = other.getAllChildren();
+			if(a.size() != b.size()) {
+				return false;
+			}
+			for(int i = 0; i < a.size(); i++) {
+				if(a.keyAt(i) != b.keyAt(i) || a.childAt(i) != b.childAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode(){
+
+			return hash;
+		}
+	}
+
+	/**
+	 * Constructor. Initially no words are added.
+	 */
+	public DawgBuilder(){
+
+		root = new StrieNode();
+		path = new StrieNode[16];
+		path[0] = root;
+		previous = "";
+		register = new java.util.HashMap<>();
+		trieNodes = 1;
+	}
+
+	/**
+	 * Adds word to the automaton. Words must come in ascending String order;
+	 * a word equal to the previous one is ignored.
+	 * Null and empty words are skipped, as in Strie.
+	 * @param word a String.
+	 * @throws IllegalArgumentException if word sorts before the previous word.
+	 * @throws IllegalStateException if build() was already called.
+	 */
+	public void add(String word){
+
+		if(built) {
+			throw new IllegalStateException("Automaton already built");
+		}
+		if(word == null || word.isEmpty()) {
+			return;
+		}
+
+		int cmp = word.compareTo(previous);
+		if(cmp < 0) {
+			throw new IllegalArgumentException("Words must be added in ascending order: \"" + word + "\" after \"" + previous + "\"");
+		}
+		if(cmp == 0 && numWords > 0) {
+			return;
+		}
+
+		int common = 0;  /* length of the prefix shared with the previous word. */
+		int max = Math.min(word.length(), previous.length());
+		while(common < max && word.charAt(common) == previous.charAt(common)) {
+			common++;
+		}
+
+		minimize(common);
+
+		if(path.length <= word.length()) {
+			path = java.util.Arrays.copyOf(path, Math.max(word.length() + 1, path.length * 2));
+		}
+		for(int d = common; d < word.length(); d++) {  /* the new suffix. */
+			StrieNode n = new StrieNode();
+			path[d].putChild(word.charAt(d), n);
+			path[d + 1] = n;
+			trieNodes++;
+		}
+
+		path[word.length()].setEnd();
+		previous = word;
+		numWords++;
+	}
+
+	/**
+	 * Minimizes the nodes on the previous word's path below depth,
+	 * deepest first, replacing each by an equivalent registered node if any.
+	 * @param depth the depth of the deepest node that stays unminimized.
+	 */
+	private void minimize(int depth){
+
+		for(int d = previous.length(); d > depth; d--) {
+			StrieNode n = path[d];
+			Signature sig = new Signature(n);
+			StrieNode existing = register.get(sig);
+			if(existing != null) {
+				path[d - 1].putChild(previous.charAt(d - 1), existing);
+			}
+			else {
+				register.put(sig, n);
+			}
+			path[d] = null;
+		}
+	}
+
+	/**
+	 * Finishes the automaton. No words may be added afterwards.
+	 * @return the minimal automaton of all words added.
+	 */
+	public Dawg build(){
+
+		if(!built) {
+			minimize(0);
+			built = true;
+		}
+		return new Dawg(root, numWords, register.size() + 1);
+	}
+
+	/**
+	 * Returns the number of words added.
+	 * @return an int.
+	 */
+	public int numWords(){
+
+		return numWords;
+	}
+
+	/**
+	 * Returns the number of nodes a plain strie of the same words would have,
+	 * including the root.
+	 * @return an int.
+	 */
+	public int numTrieNodes(){
+
+		return trieNodes;
+	}
+
+	/**
+	 * Builds the minimal automaton of all the words in a strie.
+	 * @param strie the strie, which is not changed.
+	 * @return a Dawg.
+	 */
+	public static Dawg build(Strie strie){
+
+		DawgBuilder builder = new DawgBuilder();
+		SimpleList<String> words = strie.getStrieWords();  /* ascending order. */
+		if(words != null) {
+			for(String w : words) {
+				builder.add(w);
+			}
+		}
+		return builder.build();
+	}
+}
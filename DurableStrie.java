@@ -0,0 +1,616 @@
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * A Strie whose changes survive a crash.
+ * Every insert or remove that changes the strie is appended to a log file
+ * and returns only once the log is on disk. Writers that arrive while the
+ * log is being synced queue their records, and the next writer to wait
+ * becomes the leader that writes and syncs the whole queue at once
+ * (group commit), so one fsync covers many writes.
+ *
+ * When the log grows past a limit, a checkpoint writes a full snapshot
+ * (Strie.writeTo) to a temporary file, syncs it, renames it over the
+ * previous checkpoint and empties the log. Opening the directory loads the
+ * checkpoint and replays the log up to the first damaged record.
+ * Replaying a record that is already in the checkpoint does no harm,
+ * so a crash between the rename and the truncation loses nothing.
+ *
+ * A log record is the operation byte, the word length as an int, the word
+ * as chars and a CRC32 of the preceding bytes, all big-endian.
+ * Changes are serialized; contains and the other reads may run together,
+ * and may see a change a moment before it is on disk.
+ */
+public class DurableStrie implements Closeable{
+
+	/**
+	 * Name of the checkpoint file in the directory.
+	 */
+	static final String CHECKPOINT = "strie.checkpoint";
+
+	/**
+	 * Name of the log file in the directory.
+	 */
+	static final String LOG = "strie.log";
+
+	/**
+	 * Log size at which a checkpoint is taken when none is given.
+	 */
+	static final long DEFAULT_CHECKPOINT_BYTES = 64L << 20;
+
+	/**
+	 * Operation byte of an insert record.
+	 */
+	private static final byte OP_INSERT = 1;
+
+	/**
+	 * Operation byte of a remove record.
+	 */
+	private static final byte OP_REMOVE = 2;
+
+	/**
+	 * Bytes of a record besides the word: operation, length and CRC.
+	 */
+	private static final int RECORD_OVERHEAD = 9;
+
+	/**
+	 * Initial size of the record buffers.
+	 */
+	private static final int BUFFER_LENGTH = 1 << 16;
+
+	/**
+	 * The directory holding the checkpoint and the log.
+	 */
+	private final Path dir;
+
+	/**
+	 * Log size at which a checkpoint is taken.
+	 */
+	private final long checkpointBytes;
+
+	/**
+	 * The words.
+	 */
+	private final Strie strie;
+
+	/**
+	 * Write lock for changes, read lock for reads and checkpoints.
+	 */
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Held by at most one checkpoint at a time.
+	 */
+	private final ReentrantLock checkpointLock = new ReentrantLock();
+
+	/**
+	 * Guards the record buffers and the log state below.
+	 */
+	private final ReentrantLock commitLock = new ReentrantLock();
+
+	/**
+	 * Signalled whenever a group commit ends.
+	 */
+	private final Condition committed = commitLock.newCondition();
+
+	/**
+	 * The log file, positioned at its end.
+	 */
+	private final FileChannel log;
+
+	/**
+	 * Checksums records, used under commitLock.
+	 */
+	private final CRC32 crc = new CRC32();
+
+	/**
+	 * Records waiting for the next group commit.
+	 */
+	private ByteBuffer pending;
+
+	/**
+	 * The other record buffer, null while the leader is writing it.
+	 */
+	private ByteBuffer spare;
+
+	/**
+	 * Number of records appended so far.
+	 */
+	private long appendedSeq;
+
+	/**
+	 * Number of records known to be on disk.
+	 */
+	private long durableSeq;
+
+	/**
+	 * Whether a leader is writing a group.
+	 */
+	private boolean flushing;
+
+	/**
+	 * Bytes in the log on disk.
+	 */
+	private long logSize;
+
+	/**
+	 * The error that stopped the log, after which every change fails.
+	 */
+	private IOException failure;
+
+	/**
+	 * Whether close() was called.
+	 */
+	private boolean closed;
+
+	/**
+	 * Opens or creates a durable strie in dir, recovering what was committed.
+	 * @param dir the directory holding the checkpoint and the log.
+	 * @throws IOException if the files cannot be read or created.
+	 */
+	public DurableStrie(Path dir) throws IOException{
+
+		this(dir, DEFAULT_CHECKPOINT_BYTES);
+	}
+
+	/**
+	 * Opens or creates a durable strie in dir, recovering what was committed.
+	 * @param dir the directory holding the checkpoint and the log.
+	 * @param checkpointBytes the log size at which a checkpoint is taken.
+	 * @throws IOException if the files cannot be read or created.
+	 * @throws IllegalArgumentException if checkpointBytes is not positive.
+	 */
+	public DurableStrie(Path dir, long checkpointBytes) throws IOException{
+
+		if(checkpointBytes <= 0) {
+			throw new IllegalArgumentException("Checkpoint size must be positive: " + checkpointBytes);
+		}
+		this.dir = dir;
+		this.checkpointBytes = checkpointBytes;
+		Files.createDirectories(dir);
+		Files.deleteIfExists(dir.resolve(CHECKPOINT + ".tmp"));  /* left by a crash during a checkpoint. */
+
+		Path checkpoint = dir.resolve(CHECKPOINT);
+		if(Files.exists(checkpoint)) {
+			try(FileChannel ch = FileChannel.open(checkpoint, StandardOpenOption.READ)) {
+				strie = Strie.readFrom(ch);
+			}
+		}
+		else {
+			strie = new Strie();
+		}
+
+		log = FileChannel.open(dir.resolve(LOG),
+				StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			logSize = replay();
+			log.truncate(logSize);  /* drop a torn or damaged tail. */
+			log.position(logSize);
+			log.force(true);
+		}
+		catch(IOException | RuntimeException e) {
+			log.close();
+			throw e;
+		}
+
+		pending = ByteBuffer.allocate(BUFFER_LENGTH);
+		spare = ByteBuffer.allocate(BUFFER_LENGTH);
+	}
+
+	/**
+	 * Applies the log records to the strie, stopping at the first incomplete or damaged one.
+	 * @return the length of the valid part of the log.
+	 * @throws IOException if the log cannot be read.
+	 */
+	private long replay() throws IOException{
+
+		long size = log.size();
+		long pos = 0;
+		CRC32 check = new CRC32();
+		DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(log.position(0)), BUFFER_LENGTH));
+
+		while(size - pos >= RECORD_OVERHEAD) {
+			byte[] head = new byte[5];
+			in.readFully(head);
+			int length = ((head[1] & 0xFF) << 24) | ((head[2] & 0xFF) << 16) | ((head[3] & 0xFF) << 8) | (head[4] & 0xFF);
+			if((head[0] != OP_INSERT && head[0] != OP_REMOVE) || length < 0
+					|| 2L * length > size - pos - RECORD_OVERHEAD) {
+				break;
+			}
+
+			byte[] body = new byte[2 * length];
+			in.readFully(body);
+			int stored = in.readInt();
+			check.reset();
+			check.update(head);
+			check.update(body);
+			if((int) check.getValue() != stored) {
+				break;
+			}
+
+			char[] chars = new char[length];
+			for(int i = 0; i < length; i++) {
+				chars[i] = (char) (((body[2 * i] & 0xFF) << 8) | (body[2 * i + 1] & 0xFF));
+			}
+			String word = new String(chars);
+			if(head[0] == OP_INSERT) {
+				strie.insert(word);
+			}
+			else {
+				strie.remove(word);
+			}
+			pos += RECORD_OVERHEAD + 2L * length;
+		}
+		return pos;
+	}
+
+	/**
+	 * Returns number of words in the strie.
+	 * @return an int.
+	 */
+	public int numWords(){
+
+		lock.readLock().lock();
+		try {
+			return strie.numWords();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns true if the strie contains the given word.
+	 * @param word a String.
+	 * @return a boolean value.
+	 */
+	public boolean contains(String word){
+
+		lock.readLock().lock();
+		try {
+			return strie.contains(word);
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Return all words in the strie, in ascending order.
+	 * @return a list of words.
+	 */
+	public SimpleList<String> getStrieWords(){
+
+		lock.readLock().lock();
+		try {
+			return strie.getStrieWords();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Insert word, returning once the change is on disk.
+	 * Null and empty words are skipped, as in Strie.
+	 * @param word a String.
+	 * @return true if word was added; false if it was already present or skipped.
+	 * @throws IOException if the log cannot be written; the word may then be in memory only.
+	 */
+	public boolean insert(String word) throws IOException{
+
+		if(word == null || word.isEmpty()) {
+			return false;
+		}
+
+		long seq;
+		lock.writeLock().lock();
+		try {
+			ensureOpen();
+			if(strie.contains(word)) {
+				return false;
+			}
+			strie.insert(word);
+			seq = append(OP_INSERT, word);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+		awaitDurable(seq);
+		maybeCheckpoint();
+		return true;
+	}
+
+	/**
+	 * Remove word, returning once the change is on disk.
+	 * @param word a String.
+	 * @return true if word was removed; false if it was not present.
+	 * @throws IOException if the log cannot be written; the word may then be removed in memory only.
+	 */
+	public boolean remove(String word) throws IOException{
+
+		if(word == null || word.isEmpty()) {
+			return false;
+		}
+
+		long seq;
+		lock.writeLock().lock();
+		try {
+			ensureOpen();
+			if(!strie.remove(word)) {
+				return false;
+			}
+			seq = append(OP_REMOVE, word);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+		awaitDurable(seq);
+		maybeCheckpoint();
+		return true;
+	}
+
+	/**
+	 * Throws if the strie was closed or the log failed. Called under the write lock.
+	 * @throws IOException if no more changes can be logged.
+	 */
+	private void ensureOpen() throws IOException{
+
+		if(closed) {
+			throw new IOException("DurableStrie is closed");
+		}
+		commitLock.lock();
+		try {
+			if(failure != null) {
+				throw new IOException("Log write failed earlier", failure);
+			}
+		}
+		finally {
+			commitLock.unlock();
+		}
+	}
+
+	/**
+	 * Adds a record to the pending group. Called under the write lock,
+	 * so records are in the order the changes were applied.
+	 * @param op OP_INSERT or OP_REMOVE.
+	 * @param word the word changed.
+	 * @return the sequence number of the record.
+	 */
+	private long append(byte op, String word){
+
+		commitLock.lock();
+		try {
+			int length = word.length();
+			int need = RECORD_OVERHEAD + 2 * length;
+			if(pending.remaining() < need) {  /* grow, keeping the records already queued. */
+				ByteBuffer bigger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + need));
+				pending.flip();
+				bigger.put(pending);
+				pending = bigger;
+			}
+
+			int start = pending.position();
+			pending.put(op).putInt(length);
+			for(int i = 0; i < length; i++) {
+				pending.putChar(word.charAt(i));
+			}
+			crc.reset();
+			crc.update(pending.array(), start, pending.position() - start);
+			pending.putInt((int) crc.getValue());
+			return ++appendedSeq;
+		}
+		finally {
+			commitLock.unlock();
+		}
+	}
+
+	/**
+	 * Waits until record seq is on disk. If no group is being written,
+	 * this thread becomes the leader and writes every pending record;
+	 * otherwise it waits for the current leader and, if still needed,
+	 * leads the next group.
+	 * @param seq a record sequence number.
+	 * @throws IOException if the log cannot be written.
+	 */
+	private void awaitDurable(long seq) throws IOException{
+
+		commitLock.lock();
+		try {
+			while(durableSeq < seq) {
+				if(failure != null) {
+					throw new IOException("Log write failed", failure);
+				}
+				if(flushing) {
+					committed.awaitUninterruptibly();
+					continue;
+				}
+
+				flushing = true;  /* lead this group. */
+				ByteBuffer group = pending;
+				pending = spare;
+				spare = null;
+				long end = appendedSeq;
+				int bytes = group.position();
+				IOException error = null;
+
+				commitLock.unlock();  /* later writers fill the other buffer meanwhile. */
+				try {
+					group.flip();
+					while(group.hasRemaining()) {
+						log.write(group);
+					}
+					log.force(false);
+				}
+				catch(IOException e) {
+					error = e;
+				}
+				finally {
+					group.clear();
+					commitLock.lock();
+				}
+
+				spare = group;
+				flushing = false;
+				if(error != null) {
+					failure = error;
+				}
+				else {
+					durableSeq = end;
+					logSize += bytes;
+				}
+				committed.signalAll();
+			}
+		}
+		finally {
+			commitLock.unlock();
+		}
+	}
+
+	/**
+	 * Takes a checkpoint if the log is past the limit and no other checkpoint is running.
+	 * @throws IOException if the checkpoint fails.
+	 */
+	private void maybeCheckpoint() throws IOException{
+
+		commitLock.lock();
+		try {
+			if(logSize < checkpointBytes) {
+				return;
+			}
+		}
+		finally {
+			commitLock.unlock();
+		}
+		if(checkpointLock.tryLock()) {
+			try {
+				checkpointLocked();
+			}
+			finally {
+				checkpointLock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Writes a full snapshot and empties the log.
+	 * Changes wait while the snapshot is written; reads go on.
+	 * @throws IOException if the snapshot cannot be written.
+	 */
+	public void checkpoint() throws IOException{
+
+		checkpointLock.lock();
+		try {
+			checkpointLocked();
+		}
+		finally {
+			checkpointLock.unlock();
+		}
+	}
+
+	/**
+	 * Writes a full snapshot and empties the log. Called holding checkpointLock.
+	 * @throws IOException if the snapshot cannot be written.
+	 */
+	private void checkpointLocked() throws IOException{
+
+		lock.readLock().lock();  /* no changes from here on. */
+		try {
+			if(closed) {
+				return;
+			}
+			long seq;
+			commitLock.lock();
+			try {
+				seq = appendedSeq;
+			}
+			finally {
+				commitLock.unlock();
+			}
+			awaitDurable(seq);  /* every applied change is in the log first. */
+
+			Path tmp = dir.resolve(CHECKPOINT + ".tmp");
+			try(FileChannel ch = FileChannel.open(tmp,
+					StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				strie.writeTo(ch);
+				ch.force(true);
+			}
+			Files.move(tmp, dir.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			syncDirectory();
+
+			commitLock.lock();
+			try {
+				log.truncate(0);
+				log.force(true);
+				logSize = 0;
+			}
+			finally {
+				commitLock.unlock();
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Syncs the directory so the rename is on disk.
+	 * Some platforms cannot open a directory; the rename is then as durable as they make it.
+	 */
+	private void syncDirectory(){
+
+		try(FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+			ch.force(true);
+		}
+		catch(IOException e) {
+			/* not supported here. */
+		}
+	}
+
+	/**
+	 * Waits for pending records to reach the disk and closes the log.
+	 * No checkpoint is taken; the next open replays the log.
+	 * @throws IOException if the log cannot be written or closed.
+	 */
+	@Override
+	public void close() throws IOException{
+
+		lock.writeLock().lock();
+		try {
+			if(closed) {
+				return;
+			}
+			closed = true;
+			long seq;
+			commitLock.lock();
+			try {
+				seq = appendedSeq;
+			}
+			finally {
+				commitLock.unlock();
+			}
+			try {
+				awaitDurable(seq);
+			}
+			finally {
+				log.close();
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+}
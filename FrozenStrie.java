@@ -0,0 +1,288 @@
+import java.util.Arrays;
+
+/**
+ * An immutable double-array strie compiled from a Strie.
+ * Each node is a state index; the child of state s for character ch is
+ * t = base[s] + code(ch), which exists only if check[t] == s.
+ * A lookup is a loop of int array reads with no object dereferences.
+ * It answers the same contains, numWords and getStrieWords queries as Strie.
+ */
+public class FrozenStrie{
+
+	/**
+	 * Check value of a slot that no state occupies.
+	 */
+	private static final int FREE = -1;
+
+	/**
+	 * The state of the root.
+	 */
+	private static final int ROOT = 0;
+
+	/**
+	 * Offset of each state's children.
+	 */
+	private int[] base;
+
+	/**
+	 * Parent of each state, or FREE for unused slots.
+	 */
+	private int[] check;
+
+	/**
+	 * One bit per state, set if the state ends a word.
+	 */
+	private long[] ends;
+
+	/**
+	 * Maps a character to its code, 0 if the character is not used.
+	 */
+	private int[] codes;
+
+	/**
+	 * The characters used, in ascending order. alphabet[c-1] has code c.
+	 */
+	private char[] alphabet;
+
+	/**
+	 * The number of words represented.
+	 */
+	private int numWords;
+
+	/**
+	 * Lowest slot that may still be free, where the base search starts.
+	 */
+	private int nextFree;
+
+	/**
+	 * Constructor. Compiles the given strie, which is not changed.
+	 * @param strie the strie to compile.
+	 */
+	public FrozenStrie(Strie strie){
+
+		numWords = strie.numWords();
+		buildAlphabet(strie.getRoot());
+
+		int length = 16;
+		base = new int[length];
+		check = new int[length];
+		Arrays.fill(check, FREE);
+		check[ROOT] = ROOT;  /* the root is occupied, it is nobody's child. */
+		nextFree = 1;
+		ends = new long[1];
+
+		place(strie.getRoot(), ROOT);
+
+		int used = check.length;  /* trim the unused tail. */
+		while(used > 1 && check[used - 1] == FREE) {
+			used--;
+		}
+		base = Arrays.copyOf(base, used);
+		check = Arrays.copyOf(check, used);
+		ends = Arrays.copyOf(ends, (used + 63) >>> 6);
+	}
+
+	/**
+	 * Collects the characters used in the strie and assigns them dense codes
+	 * starting at 1 in ascending order.
+	 * @param root the root of the strie.
+	 */
+	private void buildAlphabet(StrieNode root){
+
+		boolean[] seen = new boolean[Character.MAX_VALUE + 1];
+		int max = markChars(root, seen);
+
+		codes = new int[max + 1];
+		int count = 0;
+		for(int ch = 0; ch <= max; ch++) {
+			if(seen[ch]) {
+				codes[ch] = ++count;
+			}
+		}
+		alphabet = new char[count];
+		for(int ch = 0; ch <= max; ch++) {
+			if(seen[ch]) {
+				alphabet[codes[ch] - 1] = (char) ch;
+			}
+		}
+	}
+
+	/**
+	 * Marks every character below n as seen.
+	 * @param n a StrieNode.
+	 * @param seen flags indexed by character.
+	 * @return the largest character seen, or -1 if none.
+	 */
+	private static int markChars(StrieNode n, boolean[] seen){
+
+		StrieChildMap children = n.getAllChildren();
+		int max = -1;
+		for(int i = 0; i < children.size(); i++) {
+			char ch = children.keyAt(i);
+			seen[ch] = true;
+			max = Math.max(max, Math.max(ch, markChars(children.childAt(i), seen)));
+		}
+		return max;
+	}
+
+	/**
+	 * Places the children of node, which is already at state s,
+	 * then the subtrees below them.
+	 * @param node a StrieNode.
+	 * @param s the state of node.
+	 */
+	private void place(StrieNode node, int s){
+
+		if(node.isEnd()) {
+			ends[s >>> 6] |= 1L << s;
+		}
+
+		StrieChildMap children = node.getAllChildren();
+		int n = children.size();
+		if(n == 0) {
+			return;
+		}
+
+		int first = codes[children.keyAt(0)];
+		int b = Math.max(0, nextFree - first);
+
+		search:
+		while(true) {  /* find the lowest base where every child slot is free. */
+			for(int i = 0; i < n; i++) {
+				int t = b + codes[children.keyAt(i)];
+				if(t < check.length && check[t] != FREE) {
+					b++;
+					continue search;
+				}
+			}
+			break;
+		}
+
+		ensureLength(b + codes[children.keyAt(n - 1)] + 1);
+		base[s] = b;
+		for(int i = 0; i < n; i++) {
+			check[b + codes[children.keyAt(i)]] = s;
+		}
+		while(nextFree < check.length && check[nextFree] != FREE) {
+			nextFree++;
+		}
+
+		for(int i = 0; i < n; i++) {
+			place(children.childAt(i), b + codes[children.keyAt(i)]);
+		}
+	}
+
+	/**
+	 * Grows the arrays so that they hold at least length states.
+	 * @param length the minimum length.
+	 */
+	private void ensureLength(int length){
+
+		if(length <= check.length) {
+			return;
+		}
+
+		int newLength = Math.max(length, check.length * 2);
+		int old = check.length;
+		base = Arrays.copyOf(base, newLength);
+		check = Arrays.copyOf(check, newLength);
+		Arrays.fill(check, old, newLength, FREE);
+		ends = Arrays.copyOf(ends, (newLength + 63) >>> 6);
+	}
+
+	/**
+	 * Returns number of words represented.
+	 * @return an int.
+	 */
+	public int numWords(){
+
+		return numWords;
+	}
+
+	/**
+	 * Returns the number of array slots, used and free.
+	 * @return an int.
+	 */
+	public int capacity(){
+
+		return check.length;
+	}
+
+	/**
+	 * Checks whether state s ends a word.
+	 * @param s a state.
+	 * @return a boolean value.
+	 */
+	private boolean isEnd(int s){
+
+		return (ends[s >>> 6] & (1L << s)) != 0;
+	}
+
+	/**
+	 * Returns true if the given word is represented. Otherwise returns false.
+	 * @param word a String.
+	 * @return a boolean value.
+	 */
+	public boolean contains(String word){
+
+		if(word == null || numWords == 0) {
+			return false;
+		}
+
+		int s = ROOT;
+		for(int i = 0; i < word.length(); i++) {
+			char ch = word.charAt(i);
+			if(ch >= codes.length || codes[ch] == 0) {
+				return false;
+			}
+			int t = base[s] + codes[ch];
+			if(t >= check.length || check[t] != s) {
+				return false;
+			}
+			s = t;
+		}
+		return s != ROOT && isEnd(s);
+	}
+
+	/**
+	 * Returns a list of all the words represented, in ascending order.
+	 * @return a SimpleList of Strings, or null if there are no words.
+	 */
+	public SimpleList<String> getStrieWords(){
+
+		if(numWords == 0) {
+			return null;
+		}
+
+		SimpleList<String> strList = new SimpleList<String>();
+		getStrieWordsHelper(ROOT, new StringBuilder(), strList);
+		return strList;
+	}
+
+	/**
+	 * Adds the words below state s to strList in preorder.
+	 * Children are found by trying every code of the alphabet.
+	 * @param s a state.
+	 * @param sb the characters on the path to s, restored before returning.
+	 * @param strList the string list.
+	 */
+	private void getStrieWordsHelper(int s, StringBuilder sb, SimpleList<String> strList){
+
+		if(s != ROOT && isEnd(s)) {
+			strList.addLast(sb.toString());
+		}
+
+		int b = base[s];
+		for(int c = 1; c <= alphabet.length; c++) {
+			int t = b + c;
+			if(t >= check.length) {
+				break;
+			}
+			if(check[t] == s) {
+				sb.append(alphabet[c - 1]);
+				getStrieWordsHelper(t, sb, strList);
+				sb.setLength(sb.length() - 1);
+			}
+		}
+	}
+}
@@ -126,14 +126,85 @@ class HashMap<K,V> {
 	 * @return true if key is mapped to value after updating; false otherwise.
 	 */	
 	public boolean update(K key, V value) {
-		if (key==null || value==null) 
-			return false;
-			
-		Pair<K,V> pair = new Pair<>(key, value);
-		if(!remove(key)) {
-			return false;
-		}
-		return hashTable.add(pair);
+		return replace(key, value) != null;
+	}
+	
+	/**
+	 * Find the pair for key with a single probe of the hash table.
+	 * The search pair is local, so lookups on a map no one is changing
+	 * may run from several threads.
+	 * @param key key to be searched.
+	 * @return the pair in the hash table, or null if key is not present.
+	 */
+	private Pair<K,V> find(K key) {
+		return hashTable.get(new Pair<>(key, null));
+	}
+	
+	/**
+	 * Report what value the given key is mapped to, locating the entry once.
+	 * @param key key to be searched.
+	 * @return the value this key mapped to in the dictionary; if key not present, return null.
+	 */
+	public V get(K key) {
+		if (key==null)
+			return null;
+		
+		Pair<K,V> pair = find(key);
+		return pair == null ? null : pair.value;
+	}
+	
+	/**
+	 * Map key to value unless key is already present, locating the entry once.
+	 * @param key key in key,value pair.
+	 * @param value value in key,value pair.
+	 * @return the value key was already mapped to; null if value was added or cannot be.
+	 */
+	public V putIfAbsent(K key, V value) {
+		if (key==null || value==null)
+			return null;
+		
+		Pair<K,V> existing = hashTable.addIfAbsent(new Pair<>(key, value));
+		return existing == null ? null : existing.value;
+	}
+	
+	/**
+	 * Return the value of key, first mapping it to fn(key) if key is not present.
+	 * A present key is located once and fn is not called.
+	 * @param key key to be searched.
+	 * @param fn computes the value of an absent key.
+	 * @return the current value; null if fn returned null, in which case nothing is added.
+	 */
+	public V computeIfAbsent(K key, java.util.function.Function<? super K, ? extends V> fn) {
+		if (key==null)
+			return null;
+		
+		Pair<K,V> pair = find(key);
+		if (pair != null)
+			return pair.value;
+		
+		V value = fn.apply(key);
+		if (value != null)
+			hashTable.add(new Pair<>(key, value));
+		return value;
+	}
+	
+	/**
+	 * Remap a present key to value in place, locating the entry once.
+	 * @param key key in key,value pair.
+	 * @param value value in key,value pair.
+	 * @return the value key was mapped to before; null if key is not present.
+	 */
+	public V replace(K key, V value) {
+		if (key==null || value==null)
+			return null;
+		
+		Pair<K,V> pair = find(key);
+		if (pair == null)
+			return null;
+		
+		V old = pair.value;
+		pair.value = value;
+		return old;
 	}
 	
 	/**
@@ -166,7 +237,7 @@ class HashMap<K,V> {
 		if (key==null)
 			return false;
 					
-		return hashTable.contains(new Pair<>(key,null));
+		return find(key) != null;
 	}
 
 	/**
@@ -179,8 +250,8 @@ class HashMap<K,V> {
 		if (key==null)
 			return false;
 			
-		Pair<K, V> pair = new Pair<>(key, null);
-		return this.contains(key) && (hashTable.get(pair)).getValue().equals(value);
+		Pair<K,V> pair = find(key);
+		return pair != null && pair.value.equals(value);
 		
 	}
 		
@@ -191,12 +262,7 @@ class HashMap<K,V> {
 	 */
 	public V getValue(K key){
 	
-		if (this.contains(key)){
-			Pair<K, V> pair = new Pair<>(key, null);
-			return hashTable.get(pair).getValue();
-		}
-		else
-			return null;
+		return get(key);
 	}
 
 	/**
@@ -214,6 +280,21 @@ class HashMap<K,V> {
 		return keys;
 	}
 
+	/**
+	 * Report how the underlying hash table behaves.
+	 * @return a snapshot of its histograms and counters.
+	 */
+	public HashStats stats() {
+		return hashTable.stats();
+	}
+
+	/**
+	 * Set the counters of the underlying hash table back to zero.
+	 */
+	public void resetStats() {
+		hashTable.resetStats();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
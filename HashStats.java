@@ -0,0 +1,243 @@
+/**
+ * A snapshot of how a ThreeTenHashSet (or the HashMap on top of it) behaves.
+ * The histograms are computed from the table when the snapshot is taken;
+ * the lookup, probe and rehash counters are only kept when the JVM runs
+ * with -Dstrie.stats=true, otherwise they stay at zero and cost nothing.
+ */
+class HashStats {
+
+	/**
+	 * Whether the counters are kept, read once from the strie.stats system property.
+	 */
+	static final boolean ENABLED = Boolean.getBoolean("strie.stats");
+
+	/**
+	 * Number of buckets of a histogram, the last one counts everything from there up.
+	 */
+	static final int HISTOGRAM_LENGTH = 16;
+
+	/**
+	 * Length of the array.
+	 */
+	private final int capacity;
+
+	/**
+	 * Number of items.
+	 */
+	private final int size;
+
+	/**
+	 * Number of searches of the table.
+	 */
+	private final long lookups;
+
+	/**
+	 * Number of slots looked at by those searches.
+	 */
+	private final long probes;
+
+	/**
+	 * Number of times the array was replaced by a larger one.
+	 */
+	private final long rehashes;
+
+	/**
+	 * Time spent allocating larger arrays and moving items into them, in nanoseconds.
+	 */
+	private final long rehashNanos;
+
+	/**
+	 * displacement[d] is the number of items d slots past their home slot.
+	 */
+	private final int[] displacement;
+
+	/**
+	 * clusters[n] is the number of runs of n occupied slots, clusters[0] the number of empty slots.
+	 */
+	private final int[] clusters;
+
+	/**
+	 * The largest displacement of any item.
+	 */
+	private final int maxDisplacement;
+
+	/**
+	 * Constructor.
+	 * @param capacity the length of the array.
+	 * @param size the number of items.
+	 * @param lookups the number of searches.
+	 * @param probes the number of slots looked at.
+	 * @param rehashes the number of times the array grew.
+	 * @param rehashNanos the time spent growing, in nanoseconds.
+	 * @param displacement the displacement histogram.
+	 * @param clusters the cluster length histogram.
+	 * @param maxDisplacement the largest displacement.
+	 */
+	HashStats(int capacity, int size, long lookups, long probes, long rehashes, long rehashNanos,
+			int[] displacement, int[] clusters, int maxDisplacement){
+
+		this.capacity = capacity;
+		this.size = size;
+		this.lookups = lookups;
+		this.probes = probes;
+		this.rehashes = rehashes;
+		this.rehashNanos = rehashNanos;
+		this.displacement = displacement;
+		this.clusters = clusters;
+		this.maxDisplacement = maxDisplacement;
+	}
+
+	/**
+	 * Adds one to the bucket for value, the last bucket taking every larger value.
+	 * @param histogram an array of HISTOGRAM_LENGTH counts.
+	 * @param value a non-negative value.
+	 */
+	static void record(int[] histogram, int value){
+
+		histogram[Math.min(value, histogram.length - 1)]++;
+	}
+
+	/**
+	 * Returns the length of the array.
+	 * @return an int.
+	 */
+	public int capacity(){
+
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of items.
+	 * @return an int.
+	 */
+	public int size(){
+
+		return size;
+	}
+
+	/**
+	 * Returns the fraction of the array in use.
+	 * @return a double.
+	 */
+	public double load(){
+
+		return capacity == 0 ? 0 : (double) size / capacity;
+	}
+
+	/**
+	 * Returns the number of searches counted.
+	 * @return a long.
+	 */
+	public long lookups(){
+
+		return lookups;
+	}
+
+	/**
+	 * Returns the number of slots looked at by the searches counted.
+	 * @return a long.
+	 */
+	public long probes(){
+
+		return probes;
+	}
+
+	/**
+	 * Returns the average number of slots looked at per search.
+	 * @return a double, 0 if nothing was counted.
+	 */
+	public double averageProbes(){
+
+		return lookups == 0 ? 0 : (double) probes / lookups;
+	}
+
+	/**
+	 * Returns the number of times the array grew.
+	 * @return a long.
+	 */
+	public long rehashes(){
+
+		return rehashes;
+	}
+
+	/**
+	 * Returns the time spent growing, in nanoseconds.
+	 * @return a long.
+	 */
+	public long rehashNanos(){
+
+		return rehashNanos;
+	}
+
+	/**
+	 * Returns the displacement histogram: entry d counts the items d slots past
+	 * their home slot, so a successful search for them looks at d+1 slots.
+	 * @return a copy of the histogram.
+	 */
+	public int[] displacementHistogram(){
+
+		return displacement.clone();
+	}
+
+	/**
+	 * Returns the cluster histogram: entry n counts the runs of n occupied slots,
+	 * entry 0 counts the empty slots.
+	 * @return a copy of the histogram.
+	 */
+	public int[] clusterHistogram(){
+
+		return clusters.clone();
+	}
+
+	/**
+	 * Returns the largest displacement of any item.
+	 * @return an int.
+	 */
+	public int maxDisplacement(){
+
+		return maxDisplacement;
+	}
+
+	/**
+	 * Appends the non-zero buckets of a histogram on one line.
+	 * @param s the string being built.
+	 * @param name the label of the line.
+	 * @param histogram the counts.
+	 */
+	static void appendHistogram(StringBuilder s, String name, int[] histogram){
+
+		s.append(name).append(":");
+		for(int i = 0; i < histogram.length; i++) {
+			if(histogram[i] != 0) {
+				s.append(" ").append(i);
+				if(i == histogram.length - 1) {
+					s.append("+");
+				}
+				s.append("=").append(histogram[i]);
+			}
+		}
+		s.append("\n");
+	}
+
+	/**
+	 * Returns a multi-line report of the snapshot.
+	 * @return a String.
+	 */
+	@Override
+	public String toString(){
+
+		StringBuilder s = new StringBuilder("HashStats:\n");
+		s.append("capacity=").append(capacity).append(" size=").append(size)
+			.append(String.format(" load=%.3f", load())).append("\n");
+		if(ENABLED) {
+			s.append("lookups=").append(lookups).append(" probes=").append(probes)
+				.append(String.format(" avgProbes=%.3f", averageProbes())).append("\n");
+			s.append("rehashes=").append(rehashes)
+				.append(String.format(" rehashMillis=%.3f", rehashNanos / 1e6)).append("\n");
+		}
+		appendHistogram(s, "displacement", displacement);
+		appendHistogram(s, "clusters", clusters);
+		s.append("maxDisplacement=").append(maxDisplacement);
+		return s.toString();
+	}
+}
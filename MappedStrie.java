@@ -0,0 +1,268 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only strie served straight from a memory-mapped file.
+ * Nothing is deserialized when the file is opened: contains and prefix
+ * enumeration read the node records in place, so startup is instant and
+ * several JVMs mapping the same file share the page cache.
+ *
+ * File layout, all values big-endian:
+ * a header of MAGIC, VERSION, the number of words and the offset of the root record,
+ * followed by one record per node.
+ * A record is an int holding (number of children &lt;&lt; 1) | end marker,
+ * then the child characters in ascending order as chars,
+ * then the offset of each child record as ints.
+ * Offsets count from the start of the file, so the file is position independent.
+ * Records are written children first, so a file is limited to 2GB.
+ */
+public class MappedStrie{
+
+	/**
+	 * Magic number at the start of every file, "STRI".
+	 */
+	static final int MAGIC = 0x53545249;
+
+	/**
+	 * Version of the file layout.
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * Length of the header in bytes.
+	 */
+	private static final int HEADER_LENGTH = 16;
+
+	/**
+	 * Offset of the root offset within the header.
+	 */
+	private static final int ROOT_FIELD = 12;
+
+	/**
+	 * The mapped file.
+	 */
+	private final ByteBuffer buf;
+
+	/**
+	 * The number of words in the file.
+	 */
+	private final int numWords;
+
+	/**
+	 * Offset of the root record.
+	 */
+	private final int root;
+
+	/**
+	 * Maps the given file. Only the header is read.
+	 * @param path the file written by write().
+	 * @throws IOException if the file cannot be mapped or is not a strie file.
+	 */
+	public MappedStrie(Path path) throws IOException{
+
+		try(FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+			if(ch.size() > Integer.MAX_VALUE) {
+				throw new IOException("File too large to map: " + path);
+			}
+			MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());  /* stays valid after close. */
+			buf = map;
+		}
+
+		if(buf.limit() < HEADER_LENGTH || buf.getInt(0) != MAGIC) {
+			throw new IOException("Not a strie file: " + path);
+		}
+		if(buf.getInt(4) != VERSION) {
+			throw new IOException("Unsupported strie file version " + buf.getInt(4) + ": " + path);
+		}
+		numWords = buf.getInt(8);
+		root = buf.getInt(ROOT_FIELD);
+	}
+
+	/**
+	 * Writes the given strie to path in the mapped file format.
+	 * @param strie the strie to write.
+	 * @param path the file to create or replace.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public static void write(Strie strie, Path path) throws IOException{
+
+		try(FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(ch), 1 << 16));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(strie.numWords());
+			out.writeInt(0);  /* root offset, patched once known. */
+
+			int rootOffset = writeNode(strie.getRoot(), out);
+			out.flush();
+
+			ByteBuffer field = ByteBuffer.allocate(4).putInt(0, rootOffset);
+			ch.write(field, ROOT_FIELD);
+		}
+	}
+
+	/**
+	 * Writes the records of the subtree rooted at n, children first.
+	 * @param n a StrieNode.
+	 * @param out the output, whose size() is the current file offset.
+	 * @return the offset of the record of n.
+	 * @throws IOException if the output fails or grows past 2GB.
+	 */
+	private static int writeNode(StrieNode n, DataOutputStream out) throws IOException{
+
+		StrieChildMap children = n.getAllChildren();
+		int count = children.size();
+		int[] offsets = new int[count];
+		for(int i = 0; i < count; i++) {
+			offsets[i] = writeNode(children.childAt(i), out);
+		}
+
+		int offset = out.size();
+		if(offset + 4 + 6L * count >= Integer.MAX_VALUE) {  /* size() stops counting at 2GB. */
+			throw new IOException("Strie too large for a mapped file");
+		}
+
+		out.writeInt((count << 1) | (n.isEnd() ? 1 : 0));
+		for(int i = 0; i < count; i++) {
+			out.writeChar(children.keyAt(i));
+		}
+		for(int i = 0; i < count; i++) {
+			out.writeInt(offsets[i]);
+		}
+		return offset;
+	}
+
+	/**
+	 * Returns number of words in the file.
+	 * @return an int.
+	 */
+	public int numWords(){
+
+		return numWords;
+	}
+
+	/**
+	 * Returns the number of children of the record at o.
+	 * @param o a record offset.
+	 * @return an int.
+	 */
+	private int numChildren(int o){
+
+		return buf.getInt(o) >>> 1;
+	}
+
+	/**
+	 * Checks whether the record at o ends a word.
+	 * @param o a record offset.
+	 * @return a boolean value.
+	 */
+	private boolean isEnd(int o){
+
+		return (buf.getInt(o) & 1) != 0;
+	}
+
+	/**
+	 * Returns the offset of the child of the record at o for ch, or -1 if none.
+	 * @param o a record offset.
+	 * @param ch a character.
+	 * @return an int.
+	 */
+	private int getChild(int o, char ch){
+
+		int n = numChildren(o);
+		int lo = 0;
+		int hi = n - 1;
+
+		while(lo <= hi){  /* binary search over the child characters. */
+			int mid = (lo + hi) >>> 1;
+			char k = buf.getChar(o + 4 + 2 * mid);
+			if(k < ch) {
+				lo = mid + 1;
+			}
+			else if(k > ch) {
+				hi = mid - 1;
+			}
+			else {
+				return buf.getInt(o + 4 + 2 * n + 4 * mid);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the offset of the record reached by following s, or -1 if none.
+	 * @param s a String.
+	 * @return an int.
+	 */
+	private int find(String s){
+
+		int o = root;
+		for(int i = 0; i < s.length() && o >= 0; i++) {
+			o = getChild(o, s.charAt(i));
+		}
+		return o;
+	}
+
+	/**
+	 * Returns true if the file contains the given word. Otherwise returns false.
+	 * @param word a String.
+	 * @return a boolean value.
+	 */
+	public boolean contains(String word){
+
+		if(word == null || numWords == 0) {
+			return false;
+		}
+
+		int o = find(word);
+		return o >= 0 && isEnd(o);
+	}
+
+	/**
+	 * Returns a list of all the words starting with prefix, in ascending order.
+	 * @param prefix a String.
+	 * @return a SimpleList of Strings, empty if no word starts with prefix.
+	 */
+	public SimpleList<String> getWordsWithPrefix(String prefix){
+
+		SimpleList<String> strList = new SimpleList<String>();
+		if(prefix == null) {
+			return strList;
+		}
+
+		int o = find(prefix);
+		if(o >= 0) {
+			getWordsHelper(o, new StringBuilder(prefix), strList);
+		}
+		return strList;
+	}
+
+	/**
+	 * Adds the words below the record at o to strList in preorder.
+	 * @param o a record offset.
+	 * @param s the characters on the path to o, restored before returning.
+	 * @param strList the string list.
+	 */
+	private void getWordsHelper(int o, StringBuilder s, SimpleList<String> strList){
+
+		if(isEnd(o)) {
+			strList.addLast(s.toString());
+		}
+
+		int n = numChildren(o);
+		for(int i = 0; i < n; i++) {
+			s.append(buf.getChar(o + 4 + 2 * i));
+			getWordsHelper(buf.getInt(o + 4 + 2 * n + 4 * i), s, strList);
+			s.setLength(s.length() - 1);
+		}
+	}
+}
@@ -0,0 +1,191 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Builds a Strie on several cores.
+ * The words are partitioned by their first character, and large partitions
+ * again by their second, so that each partition owns a separate subtree.
+ * Each subtree is built by its own ForkJoin task, then the subtrees are
+ * attached under a shared root and their word counts summed.
+ */
+public class ParallelStrieBuilder{
+
+	/**
+	 * How many leading characters may be used to partition.
+	 */
+	static final int MAX_PARTITION_DEPTH = 2;
+
+	/**
+	 * Partitions larger than this are split again by the next character.
+	 */
+	static final int SPLIT_THRESHOLD = 1 << 15;
+
+	/**
+	 * A built subtree with the number of words in it.
+	 */
+	private static class Result{
+
+		/**
+		 * The root of the subtree.
+		 */
+		final StrieNode node;
+
+		/**
+		 * The number of words in the subtree.
+		 */
+		final int numWords;
+
+		/**
+		 * The number of nodes in the subtree, its root included.
+		 */
+		final long numNodes;
+
+		/**
+		 * Constructor.
+		 * @param node the root of the subtree.
+		 * @param numWords the number of words in the subtree.
+		 * @param numNodes the number of nodes in the subtree.
+		 */
+		Result(StrieNode node, int numWords, long numNodes){
+			this.node = node;
+			this.numWords = numWords;
+			this.numNodes = numNodes;
+		}
+	}
+
+	/**
+	 * Builds the subtree for words that all share their first depth characters.
+	 */
+	private static class BuildTask extends RecursiveTask<Result>{
+
+		/**
+		 * Serial version, as required by RecursiveTask.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The words, each at least depth characters long.
+		 */
+		private final List<String> words;
+
+		/**
+		 * The number of leading characters the words share.
+		 */
+		private final int depth;
+
+		/**
+		 * Constructor.
+		 * @param words the words, each at least depth characters long.
+		 * @param depth the number of leading characters the words share.
+		 */
+		BuildTask(List<String> words, int depth){
+			this.words = words;
+			this.depth = depth;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected Result compute(){
+
+			if(depth >= MAX_PARTITION_DEPTH || (depth > 0 && words.size() <= SPLIT_THRESHOLD)) {
+				return buildSequential();
+			}
+
+			StrieNode node = new StrieNode();
+			boolean end = false;
+			TreeMap<Character, List<String>> groups = new TreeMap<>();
+			for(String w : words) {  /* partition by the character at depth. */
+				if(w.length() == depth) {
+					end = true;
+				}
+				else {
+					groups.computeIfAbsent(w.charAt(depth), k -> new ArrayList<>()).add(w);
+				}
+			}
+
+			List<BuildTask> tasks = new ArrayList<>();
+			for(List<String> g : groups.values()) {
+				tasks.add(new BuildTask(g, depth + 1));
+			}
+			invokeAll(tasks);
+
+			int count = 0;
+			long nodes = 1;
+			int i = 0;
+			for(Map.Entry<Character, List<String>> e : groups.entrySet()) {  /* attach the subtrees. */
+				Result r = tasks.get(i++).join();
+				node.putChild(e.getKey(), r.node);
+				count += r.numWords;
+				nodes += r.numNodes;
+			}
+
+			if(end && depth > 0) {  /* the root never ends a word. */
+				node.setEnd();
+				if(node.getNumChildren() == 0) {
+					node.setFlag();
+				}
+				count++;
+			}
+			return new Result(node, count, nodes);
+		}
+
+		/**
+		 * Builds the subtree with a plain single-threaded Strie.
+		 * @return the subtree and its word and node counts.
+		 */
+		private Result buildSequential(){
+
+			Strie s = new Strie();
+			s.insertSorted(words.iterator());
+
+			StrieNode node = s.getRoot();
+			String first = words.get(0);
+			for(int i = 0; i < depth; i++) {  /* walk down the shared prefix. */
+				node = node.getChild(first.charAt(i));
+			}
+			return new Result(node, s.numWords(), s.numNodes() - depth);  /* minus the prefix nodes above. */
+		}
+	}
+
+	/**
+	 * Builds a Strie of words using the common ForkJoin pool.
+	 * Null and empty words are skipped.
+	 * @param words the words, in any order.
+	 * @return a new Strie.
+	 */
+	public static Strie build(Collection<String> words){
+
+		return build(words, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Builds a Strie of words using the given pool.
+	 * Null and empty words are skipped.
+	 * @param words the words, in any order.
+	 * @param pool the pool to run the build tasks in.
+	 * @return a new Strie.
+	 */
+	public static Strie build(Collection<String> words, ForkJoinPool pool){
+
+		List<String> list = new ArrayList<>(words.size());
+		for(String w : words) {
+			if(w != null && !w.isEmpty()) {
+				list.add(w);
+			}
+		}
+
+		if(list.isEmpty()) {
+			return new Strie();
+		}
+
+		Result r = pool.invoke(new BuildTask(list, 0));
+		return new Strie(r.node, r.numWords, r.numNodes);
+	}
+}
@@ -0,0 +1,326 @@
+/**
+ * An immutable strie with structural sharing.
+ * insert and remove never change a strie: they copy only the nodes on the
+ * path of the word and return a new version that shares every other node
+ * with the old one. Old versions stay valid, so any version is a free,
+ * consistent point-in-time snapshot. See VersionedStrie for a mutable
+ * handle on the current version.
+ */
+public final class PersistentStrie{
+
+	/**
+	 * An immutable node. Children are a sorted key array with a parallel node array.
+	 */
+	private static final class Node{
+
+		/**
+		 * Shared empty key array.
+		 */
+		static final char[] NO_KEYS = new char[0];
+
+		/**
+		 * Shared empty node array.
+		 */
+		static final Node[] NO_NODES = new Node[0];
+
+		/**
+		 * The node without children that ends no word.
+		 */
+		static final Node EMPTY = new Node(NO_KEYS, NO_NODES, false);
+
+		/**
+		 * The node without children that ends a word, shared by every leaf.
+		 */
+		static final Node LEAF = new Node(NO_KEYS, NO_NODES, true);
+
+		/**
+		 * Sorted keys of the children.
+		 */
+		final char[] keys;
+
+		/**
+		 * Child nodes, nodes[i] is the child for keys[i].
+		 */
+		final Node[] nodes;
+
+		/**
+		 * Whether this node ends a word.
+		 */
+		final boolean end;
+
+		/**
+		 * Constructor.
+		 * @param keys sorted keys.
+		 * @param nodes the matching nodes.
+		 * @param end whether this node ends a word.
+		 */
+		Node(char[] keys, Node[] nodes, boolean end){
+			this.keys = keys;
+			this.nodes = nodes;
+			this.end = end;
+		}
+
+		/**
+		 * Returns a node with the given children and end marker,
+		 * reusing the shared EMPTY or LEAF node when there are no children.
+		 * @param keys sorted keys.
+		 * @param nodes the matching nodes.
+		 * @param e the end marker.
+		 * @return a Node.
+		 */
+		static Node of(char[] keys, Node[] nodes, boolean e){
+			if(keys.length == 0) {
+				return e ? LEAF : EMPTY;
+			}
+			return new Node(keys, nodes, e);
+		}
+
+		/**
+		 * Returns the child for ch, or null if there is none.
+		 * @param ch a character.
+		 * @return a Node.
+		 */
+		Node get(char ch){
+			int i = java.util.Arrays.binarySearch(keys, ch);
+			return i >= 0 ? nodes[i] : null;
+		}
+
+		/**
+		 * Returns a copy of this node with ch mapped to child.
+		 * @param ch a character.
+		 * @param child a Node.
+		 * @return a Node.
+		 */
+		Node with(char ch, Node child){
+			int i = java.util.Arrays.binarySearch(keys, ch);
+			if(i >= 0) {  /* same keys, one node replaced. */
+				Node[] v = nodes.clone();
+				v[i] = child;
+				return new Node(keys, v, end);
+			}
+			i = -(i + 1);
+			int n = keys.length;
+			char[] k = new char[n + 1];
+			Node[] v = new Node[n + 1];
+			System.arraycopy(keys, 0, k, 0, i);
+			System.arraycopy(nodes, 0, v, 0, i);
+			k[i] = ch;
+			v[i] = child;
+			System.arraycopy(keys, i, k, i + 1, n - i);
+			System.arraycopy(nodes, i, v, i + 1, n - i);
+			return new Node(k, v, end);
+		}
+
+		/**
+		 * Returns a copy of this node without the child for ch.
+		 * @param ch a character that has a child.
+		 * @return a Node.
+		 */
+		Node without(char ch){
+			int i = java.util.Arrays.binarySearch(keys, ch);
+			int n = keys.length - 1;
+			char[] k = new char[n];
+			Node[] v = new Node[n];
+			System.arraycopy(keys, 0, k, 0, i);
+			System.arraycopy(nodes, 0, v, 0, i);
+			System.arraycopy(keys, i + 1, k, i, n - i);
+			System.arraycopy(nodes, i + 1, v, i, n - i);
+			return of(k, v, end);
+		}
+	}
+
+	/**
+	 * The strie without any word.
+	 */
+	private static final PersistentStrie EMPTY = new PersistentStrie(Node.EMPTY, 0);
+
+	/**
+	 * The root of this version.
+	 */
+	private final Node root;
+
+	/**
+	 * The number of words in this version.
+	 */
+	private final int numWords;
+
+	/**
+	 * Constructor.
+	 * @param root the root.
+	 * @param numWords the number of words below root.
+	 */
+	private PersistentStrie(Node root, int numWords){
+
+		this.root = root;
+		this.numWords = numWords;
+	}
+
+	/**
+	 * Returns the strie without any word.
+	 * @return a PersistentStrie.
+	 */
+	public static PersistentStrie empty(){
+
+		return EMPTY;
+	}
+
+	/**
+	 * Returns number of words in this version.
+	 * @return an int.
+	 */
+	public int numWords(){
+
+		return numWords;
+	}
+
+	/**
+	 * Returns a version that also contains word.
+	 * Only the nodes on the path of word are copied.
+	 * @param word a String.
+	 * @return the new version, or this one if word was already present.
+	 */
+	public PersistentStrie insert(String word){
+
+		if(word == null || word.isEmpty()) {
+			return this;
+		}
+
+		Node r = insert(root, word, 0);
+		return r == root ? this : new PersistentStrie(r, numWords + 1);
+	}
+
+	/**
+	 * Returns n with word.substring(i) added below it.
+	 * @param n a node, or null for a missing one.
+	 * @param word a String.
+	 * @param i the number of characters of word already followed.
+	 * @return the new node, or n itself if nothing changed.
+	 */
+	private static Node insert(Node n, String word, int i){
+
+		if(i == word.length()) {
+			if(n != null && n.end) {
+				return n;
+			}
+			return n == null ? Node.LEAF : Node.of(n.keys, n.nodes, true);
+		}
+
+		char ch = word.charAt(i);
+		Node child = n == null ? null : n.get(ch);
+		Node c = insert(child, word, i + 1);
+		if(c == child) {
+			return n;
+		}
+		return (n == null ? Node.EMPTY : n).with(ch, c);
+	}
+
+	/**
+	 * Returns a version without word.
+	 * Only the nodes on the path of word are copied; dead branches are dropped.
+	 * @param word a String.
+	 * @return the new version, or this one if word was not present.
+	 */
+	public PersistentStrie remove(String word){
+
+		if(word == null || word.isEmpty()) {
+			return this;
+		}
+
+		Node r = remove(root, word, 0);
+		if(r == root) {
+			return this;
+		}
+		return new PersistentStrie(r == null ? Node.EMPTY : r, numWords - 1);
+	}
+
+	/**
+	 * Returns n with word.substring(i) removed below it.
+	 * @param n a node.
+	 * @param word a String.
+	 * @param i the number of characters of word already followed.
+	 * @return the new node, n itself if nothing changed, or null if n became empty.
+	 */
+	private static Node remove(Node n, String word, int i){
+
+		if(i == word.length()) {
+			if(!n.end) {
+				return n;
+			}
+			return n.keys.length == 0 ? null : Node.of(n.keys, n.nodes, false);
+		}
+
+		char ch = word.charAt(i);
+		Node child = n.get(ch);
+		if(child == null) {
+			return n;
+		}
+		Node c = remove(child, word, i + 1);
+		if(c == child) {
+			return n;
+		}
+		if(c != null) {
+			return n.with(ch, c);
+		}
+
+		Node rest = n.without(ch);
+		return (rest == Node.EMPTY) ? null : rest;
+	}
+
+	/**
+	 * Returns true if this version contains the given word. Otherwise returns false.
+	 * @param word a String.
+	 * @return a boolean value.
+	 */
+	public boolean contains(String word){
+
+		if(word == null || word.isEmpty()) {
+			return false;
+		}
+
+		Node n = root;
+		for(int i = 0; i < word.length() && n != null; i++) {
+			n = n.get(word.charAt(i));
+		}
+		return n != null && n.end;
+	}
+
+	/**
+	 * Returns the words of this version starting with prefix, in ascending order.
+	 * @param prefix a String.
+	 * @return a SimpleList of Strings, empty if no word starts with prefix.
+	 */
+	public SimpleList<String> wordsWithPrefix(String prefix){
+
+		SimpleList<String> strList = new SimpleList<String>();
+		if(prefix == null) {
+			return strList;
+		}
+
+		Node n = root;
+		for(int i = 0; i < prefix.length() && n != null; i++) {
+			n = n.get(prefix.charAt(i));
+		}
+		if(n != null) {
+			wordsHelper(n, new StringBuilder(prefix), strList);
+		}
+		return strList;
+	}
+
+	/**
+	 * Adds the words below n to strList in preorder.
+	 * @param n the current node.
+	 * @param s the characters on the path to n, restored before returning.
+	 * @param strList the string list.
+	 */
+	private static void wordsHelper(Node n, StringBuilder s, SimpleList<String> strList){
+
+		if(n.end) {
+			strList.addLast(s.toString());
+		}
+		for(int i = 0; i < n.keys.length; i++) {
+			s.append(n.keys[i]);
+			wordsHelper(n.nodes[i], s, strList);
+			s.setLength(s.length() - 1);
+		}
+	}
+}
@@ -0,0 +1,297 @@
+/**
+ * A path-compressed (radix) strie.
+ * Runs of single-child nodes collapse into one RadixStrieNode whose edge
+ * holds the whole run, so a word that shares no prefix costs one node
+ * instead of one node per character.
+ * It supports the same insert, contains and remove operations as Strie,
+ * splitting and merging edges as needed.
+ */
+public class RadixStrie{
+
+	/**
+	 * The root of the strie, its label is always empty.
+	 */
+	private RadixStrieNode root;
+
+	/**
+	 * The number of words represented by the strie.
+	 */
+	private int numWords = 0;
+
+	/**
+	 * Constructor.
+	 * Initialize root to be an empty node. Initially no words are in the strie.
+	 */
+	public RadixStrie(){
+
+		root = new RadixStrieNode();
+	}
+
+	/**
+	 * Returns number of words in the strie.
+	 * @return an int.
+	 */
+	public int numWords(){
+
+		return numWords;
+	}
+
+	/**
+	 * Returns the root of the strie.
+	 * @return a RadixStrieNode obj.
+	 */
+	public RadixStrieNode getRoot(){
+
+		return root;
+	}
+
+	/**
+	 * Estimates the heap used by the strie, edge labels included.
+	 * @return a StrieFootprint.
+	 */
+	public StrieFootprint footprint(){
+
+		return new StrieFootprint(root, numWords);
+	}
+
+	/**
+	 * Returns the length of the common prefix of label and word starting at i.
+	 * @param label an edge label.
+	 * @param word a String.
+	 * @param i the index in word to start comparing from.
+	 * @return an int.
+	 */
+	private static int matchLength(char[] label, String word, int i){
+
+		int n = Math.min(label.length, word.length() - i);
+		int m = 0;
+		while(m < n && label[m] == word.charAt(i + m)) {
+			m++;
+		}
+		return m;
+	}
+
+	/**
+	 * Insert word into the strie.
+	 * Null and empty words are skipped, as in Strie.
+	 * @param word a String.
+	 */
+	public void insert(String word){
+
+		if(word == null || word.isEmpty()) {
+			return;
+		}
+
+		char[] chars = word.toCharArray();
+		RadixStrieNode cur = root;
+		int i = 0;
+
+		while(i < chars.length) {
+
+			RadixStrieNode child = cur.getChild(chars[i]);
+
+			if(child == null) {  /* nothing shares this suffix, hang it off as one edge. */
+				RadixStrieNode leaf = new RadixStrieNode(chars, i, chars.length);
+				leaf.setEnd();
+				cur.putChild(chars[i], leaf);
+				numWords++;
+				return;
+			}
+
+			char[] label = child.getLabel();
+			int m = matchLength(label, word, i);
+
+			if(m < label.length) {  /* word leaves the edge part way, split it. */
+				RadixStrieNode mid = new RadixStrieNode(label, 0, m);
+				child.setLabel(java.util.Arrays.copyOfRange(label, m, label.length));
+				mid.putChild(label[m], child);
+				cur.putChild(chars[i], mid);
+				child = mid;
+			}
+
+			cur = child;
+			i += m;
+		}
+
+		if(!cur.isEnd()) {
+			cur.setEnd();
+			numWords++;
+		}
+	}
+
+	/**
+	 * Returns the node reached by following word exactly, or null if word
+	 * ends inside an edge or leaves the strie.
+	 * @param word a String.
+	 * @return a RadixStrieNode.
+	 */
+	private RadixStrieNode find(String word){
+
+		RadixStrieNode cur = root;
+		int i = 0;
+
+		while(i < word.length()) {
+			cur = cur.getChild(word.charAt(i));
+			if(cur == null) {
+				return null;
+			}
+			char[] label = cur.getLabel();
+			if(matchLength(label, word, i) < label.length) {
+				return null;
+			}
+			i += label.length;
+		}
+		return cur;
+	}
+
+	/**
+	 * Returns true if strie contains the given word. Otherwise returns false.
+	 * @param word a String.
+	 * @return a boolean value.
+	 */
+	public boolean contains(String word){
+
+		if(word == null || word.isEmpty() || numWords == 0) {
+			return false;
+		}
+
+		RadixStrieNode n = find(word);
+		return n != null && n.isEnd();
+	}
+
+	/**
+	 * Removes the given word from the strie.
+	 * If word is not present in strie, return false.
+	 * Otherwise, remove word and return true.
+	 * Edges left with a single child are merged back together.
+	 * @param word a String.
+	 * @return a boolean value.
+	 */
+	public boolean remove(String word){
+
+		if(word == null || word.isEmpty() || numWords == 0) {
+			return false;
+		}
+
+		RadixStrieNode grand = null;
+		RadixStrieNode parent = null;
+		RadixStrieNode cur = root;
+		int i = 0;
+
+		while(i < word.length()) {  /* walk down, remembering the two nodes above. */
+			RadixStrieNode next = cur.getChild(word.charAt(i));
+			if(next == null) {
+				return false;
+			}
+			char[] label = next.getLabel();
+			if(matchLength(label, word, i) < label.length) {
+				return false;
+			}
+			grand = parent;
+			parent = cur;
+			cur = next;
+			i += label.length;
+		}
+
+		if(!cur.isEnd()) {
+			return false;
+		}
+
+		cur.unsetEnd();
+		numWords--;
+
+		if(cur == root) {
+			return true;
+		}
+
+		if(cur.getNumChildren() == 0) {  /* leaf, drop it and maybe merge the parent. */
+			parent.removeChild(cur.getLabel()[0]);
+			if(parent != root && !parent.isEnd() && parent.getNumChildren() == 1) {
+				merge(grand, parent);
+			}
+		}
+		else if(cur.getNumChildren() == 1) {  /* pass-through node, merge it with its child. */
+			merge(parent, cur);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Merges node, which has exactly one child, with that child.
+	 * The child takes over the concatenated label and node's place under parent.
+	 * @param parent the parent of node.
+	 * @param node a non-root node with one child and no end marker.
+	 */
+	private void merge(RadixStrieNode parent, RadixStrieNode node){
+
+		RadixStrieNode child = (RadixStrieNode) node.getAllChildren().childAt(0);
+		char[] a = node.getLabel();
+		char[] b = child.getLabel();
+		char[] label = new char[a.length + b.length];
+		System.arraycopy(a, 0, label, 0, a.length);
+		System.arraycopy(b, 0, label, a.length, b.length);
+		child.setLabel(label);
+		parent.putChild(label[0], child);  /* replaces node. */
+	}
+
+	/**
+	 * Returns the number of nodes in the strie, including the root.
+	 * @return an int.
+	 */
+	public int numNodes(){
+
+		return countNodes(root);
+	}
+
+	/**
+	 * Counts the nodes in the subtree rooted at n.
+	 * @param n a StrieNode.
+	 * @return an int.
+	 */
+	private static int countNodes(StrieNode n){
+
+		StrieChildMap children = n.getAllChildren();
+		int count = 1;
+		for(int i = 0; i < children.size(); i++) {
+			count += countNodes(children.childAt(i));
+		}
+		return count;
+	}
+
+	/**
+	 * Returns a list of all the words found in the strie, in ascending order.
+	 * @return a SimpleList of Strings, or null if the strie is empty.
+	 */
+	public SimpleList<String> getStrieWords(){
+
+		if(numWords == 0) {
+			return null;
+		}
+
+		SimpleList<String> strList = new SimpleList<String>();
+		getStrieWordsHelper(root, new StringBuilder(), strList);
+		return strList;
+	}
+
+	/**
+	 * Adds the words below n to strList in preorder.
+	 * @param n the current node.
+	 * @param s the characters on the path to n, restored before returning.
+	 * @param strList the string list.
+	 */
+	private void getStrieWordsHelper(RadixStrieNode n, StringBuilder s, SimpleList<String> strList){
+
+		int len = s.length();
+		s.append(n.getLabel());
+		if(n.isEnd()) {
+			strList.addLast(s.toString());
+		}
+
+		StrieChildMap children = n.getAllChildren();
+		for(int i = 0; i < children.size(); i++) {
+			getStrieWordsHelper((RadixStrieNode) children.childAt(i), s, strList);
+		}
+		s.setLength(len);
+	}
+}
@@ -0,0 +1,67 @@
+/**
+ * A StrieNode for a path-compressed strie.
+ * Each node carries the run of characters on the edge that leads into it,
+ * so a chain of single-child nodes is stored as one node.
+ * Children are keyed by the first character of their label.
+ */
+public class RadixStrieNode extends StrieNode{
+
+	/**
+	 * Shared empty label for the root.
+	 */
+	private static final char[] NO_LABEL = new char[0];
+
+	/**
+	 * The characters on the edge leading into this node.
+	 */
+	private char[] label;
+
+	/**
+	 * Constructor. Creates a node with an empty label, used for the root.
+	 */
+	public RadixStrieNode(){
+
+		label = NO_LABEL;
+	}
+
+	/**
+	 * Constructor. Creates a node whose edge label is the given characters.
+	 * @param chars the characters.
+	 * @param from the index of the first character, inclusive.
+	 * @param to the index of the last character, exclusive.
+	 */
+	public RadixStrieNode(char[] chars, int from, int to){
+
+		label = java.util.Arrays.copyOfRange(chars, from, to);
+	}
+
+	/**
+	 * Returns the edge label of this node.
+	 * The array is shared, callers must not change it.
+	 * @return a char array.
+	 */
+	public char[] getLabel(){
+
+		return label;
+	}
+
+	/**
+	 * Replaces the edge label of this node.
+	 * @param label the new label.
+	 */
+	public void setLabel(char[] label){
+
+		this.label = label;
+	}
+
+	/**
+	 * Returns the child whose label starts with ch, or null if there is none.
+	 * @param ch a character.
+	 * @return a RadixStrieNode.
+	 */
+	@Override
+	public RadixStrieNode getChild(char ch){
+
+		return (RadixStrieNode) super.getChild(ch);
+	}
+}
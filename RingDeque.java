@@ -0,0 +1,209 @@
+import java.util.NoSuchElementException;
+
+/**
+ * A growable double-ended queue backed by a circular array.
+ * Adding and removing at either end is O(1) and allocates nothing
+ * unless the array has to double, unlike SimpleList which allocates
+ * a node per element.
+ * @param <T> a data.
+ */
+class RingDeque<T> {
+
+	/**
+	 * The circular array, its length is a power of two.
+	 */
+	private Object[] elements;
+
+	/**
+	 * Index of the first element.
+	 */
+	private int head;
+
+	/**
+	 * The number of elements.
+	 */
+	private int size;
+
+	/**
+	 * Constructor, initializes an empty deque.
+	 */
+	public RingDeque(){
+
+		this(16);
+	}
+
+	/**
+	 * Constructor, initializes an empty deque with room for initCapacity elements.
+	 * @param initCapacity the number of elements that fit before growing.
+	 */
+	public RingDeque(int initCapacity){
+
+		elements = new Object[Math.max(2, Integer.highestOneBit(Math.max(1, initCapacity - 1)) << 1)];
+	}
+
+	/**
+	 * Returns the number of elements.
+	 * @return an int.
+	 */
+	public int size(){
+
+		return size;
+	}
+
+	/**
+	 * Checks whether the deque is empty.
+	 * @return a boolean value.
+	 */
+	public boolean isEmpty(){
+
+		return size == 0;
+	}
+
+	/**
+	 * Doubles the array, unwrapping the elements to start at index 0.
+	 */
+	private void grow(){
+
+		int n = elements.length;
+		if(n >= 1 << 30) {
+			throw new IllegalStateException("Deque too large");
+		}
+		Object[] a = new Object[n * 2];
+		int firstPart = Math.min(size, n - head);
+		System.arraycopy(elements, head, a, 0, firstPart);
+		System.arraycopy(elements, 0, a, firstPart, size - firstPart);
+		elements = a;
+		head = 0;
+	}
+
+	/**
+	 * Adds value at the front.
+	 * @param value the data.
+	 */
+	public void addFirst(T value){
+
+		if(value == null) {
+			throw new IllegalArgumentException("Cannot add null value!");
+		}
+		if(size == elements.length) {
+			grow();
+		}
+		head = (head - 1) & (elements.length - 1);
+		elements[head] = value;
+		size++;
+	}
+
+	/**
+	 * Adds value at the back.
+	 * @param value the data.
+	 */
+	public void addLast(T value){
+
+		if(value == null) {
+			throw new IllegalArgumentException("Cannot add null value!");
+		}
+		if(size == elements.length) {
+			grow();
+		}
+		elements[(head + size) & (elements.length - 1)] = value;
+		size++;
+	}
+
+	/**
+	 * Removes the first element.
+	 * @return the element, or null if the deque is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public T removeFirst(){
+
+		if(size == 0) {
+			return null;
+		}
+		T value = (T) elements[head];
+		elements[head] = null;  /* let go of the element. */
+		head = (head + 1) & (elements.length - 1);
+		size--;
+		return value;
+	}
+
+	/**
+	 * Removes the last element.
+	 * @return the element, or null if the deque is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public T removeLast(){
+
+		if(size == 0) {
+			return null;
+		}
+		size--;
+		int i = (head + size) & (elements.length - 1);
+		T value = (T) elements[i];
+		elements[i] = null;
+		return value;
+	}
+
+	/**
+	 * Returns the first element without removing it.
+	 * @return the element, or null if the deque is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public T peekFirst(){
+
+		return size == 0 ? null : (T) elements[head];
+	}
+
+	/**
+	 * Returns the last element without removing it.
+	 * @return the element, or null if the deque is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public T peekLast(){
+
+		return size == 0 ? null : (T) elements[(head + size - 1) & (elements.length - 1)];
+	}
+
+	/**
+	 * Returns the element at position i from the front.
+	 * @param i an index between 0 and size()-1.
+	 * @return the element.
+	 * @throws NoSuchElementException if i is out of range.
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int i){
+
+		if(i < 0 || i >= size) {
+			throw new NoSuchElementException("Index " + i + " of " + size);
+		}
+		return (T) elements[(head + i) & (elements.length - 1)];
+	}
+
+	/**
+	 * Removes every element, keeping the array.
+	 */
+	public void clear(){
+
+		while(size > 0) {
+			removeLast();
+		}
+		head = 0;
+	}
+
+	/**
+	 * Prints the contents of the deque, from front to back.
+	 * @return a string of the whole deque.
+	 */
+	@Override
+	public String toString(){
+
+		StringBuilder s = new StringBuilder("[");
+		for(int i = 0; i < size; i++) {
+			if(i > 0) {
+				s.append(",");
+			}
+			s.append(get(i));
+		}
+		s.append("]");
+		return s.toString();
+	}
+}
@@ -0,0 +1,34 @@
+/**
+ * A StrieNode for an Aho-Corasick scanner.
+ * Besides its children, each node has a failure link to the node for the
+ * longest proper suffix of its path that is also in the strie, and an
+ * output link to the nearest node along the failure chain that ends a word.
+ */
+class ScannerNode extends StrieNode{
+
+	/**
+	 * The node for the longest proper suffix of this node's path, null for the root.
+	 */
+	ScannerNode fail;
+
+	/**
+	 * The nearest node on the failure chain that ends a word, or null.
+	 */
+	ScannerNode output;
+
+	/**
+	 * The word ending at this node, or null if no word ends here.
+	 */
+	String word;
+
+	/**
+	 * Returns the child node corresponding to ch, Otherwise, returns null if no such node.
+	 * @param ch a character.
+	 * @return a ScannerNode.
+	 */
+	@Override
+	public ScannerNode getChild(char ch){
+
+		return (ScannerNode) super.getChild(ch);
+	}
+}
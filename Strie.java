@@ -1,4 +1,10 @@
 
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * This class implements the strie data strcutrue. 
  * It supports basic strie operation such as inserting a word.
@@ -18,6 +24,61 @@ public class Strie{
 	 */
 	private int numWords = 0; 
 	
+	/**
+	 * The number of nodes in the strie, root included.
+	 */
+	private long numNodes = 1;
+	
+	/**
+	 * A word found by fuzzySearch() with its edit distance from the query.
+	 */
+	public static class FuzzyMatch{
+		
+		/**
+		 * The word.
+		 */
+		private final String word;
+		
+		/**
+		 * The Levenshtein distance between the word and the query.
+		 */
+		private final int distance;
+		
+		/**
+		 * Constructor.
+		 * @param word the word.
+		 * @param distance the edit distance from the query.
+		 */
+		public FuzzyMatch(String word, int distance){
+			this.word = word;
+			this.distance = distance;
+		}
+		
+		/**
+		 * Getter for word.
+		 * @return the word.
+		 */
+		public String getWord(){
+			return word;
+		}
+		
+		/**
+		 * Getter for distance.
+		 * @return the edit distance from the query.
+		 */
+		public int getDistance(){
+			return distance;
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public String toString(){
+			return "<" + word + "," + distance + ">";
+		}
+	}
+	
 	/**
 	 * Constructor. 
 	 * Initialize root to be an empty node. Initially no words are in the strie.
@@ -28,6 +89,20 @@ public class Strie{
 
 	}
 	
+	/**
+	 * Constructor for a strie assembled elsewhere, such as by ParallelStrieBuilder.
+	 * @param root the root node.
+	 * @param numWords the number of words below root.
+	 * @param numNodes the number of nodes, root included.
+	 */
+	Strie(StrieNode root, int numWords, long numNodes){
+
+		this.root = root;
+		this.numWords = numWords;
+		this.numNodes = numNodes;
+
+	}
+	
 	/**
 	 * Returns number of words in the strie.
 	 * @return an int.
@@ -37,6 +112,15 @@ public class Strie{
 		return numWords; 
 	}
 	
+	/**
+	 * Returns number of nodes in the strie, root included.
+	 * @return a long.
+	 */
+	public long numNodes(){
+		
+		return numNodes;
+	}
+	
 	/**
 	 * Returns the root of the strie.
 	 * @return a StrieNode obj.
@@ -48,12 +132,80 @@ public class Strie{
 	}
     
 	/**
-	 * Insert word into the Strie.
+	 * Compiles the strie into an immutable double-array strie for fast lookups.
+	 * Later changes to this strie are not reflected in the result.
+	 * @return a FrozenStrie.
+	 */
+	public FrozenStrie freeze(){
+		
+		return new FrozenStrie(this);
+	}
+    
+	/**
+	 * Writes the strie to path in the format read by MappedStrie.
+	 * @param path the file to create or replace.
+	 * @throws java.io.IOException if the file cannot be written.
+	 */
+	public void export(java.nio.file.Path path) throws java.io.IOException{
+		
+		MappedStrie.write(this, path);
+	}
+    
+	/**
+	 * Writes a compact preorder snapshot of the strie to out, see StrieSnapshot.
+	 * The stream is flushed but not closed.
+	 * @param out the stream to write to.
+	 * @throws java.io.IOException if writing fails.
+	 */
+	public void writeTo(java.io.OutputStream out) throws java.io.IOException{
+		
+		StrieSnapshot.write(root, numWords, java.nio.channels.Channels.newChannel(out));
+		out.flush();
+	}
+    
+	/**
+	 * Writes a compact preorder snapshot of the strie to out, see StrieSnapshot.
+	 * The channel is not closed.
+	 * @param out the channel to write to.
+	 * @throws java.io.IOException if writing fails.
+	 */
+	public void writeTo(java.nio.channels.WritableByteChannel out) throws java.io.IOException{
+		
+		StrieSnapshot.write(root, numWords, out);
+	}
+    
+	/**
+	 * Builds a strie from a snapshot written by writeTo, in a single pass.
+	 * The stream is not closed, and may have been read past the end of the snapshot.
+	 * @param in the stream to read from.
+	 * @return a new Strie.
+	 * @throws java.io.IOException if reading fails or the stream is not a valid snapshot.
+	 */
+	public static Strie readFrom(java.io.InputStream in) throws java.io.IOException{
+		
+		return StrieSnapshot.read(java.nio.channels.Channels.newChannel(in));
+	}
+    
+	/**
+	 * Builds a strie from a snapshot written by writeTo, in a single pass.
+	 * The channel is not closed, and may have been read past the end of the snapshot.
+	 * @param in the channel to read from.
+	 * @return a new Strie.
+	 * @throws java.io.IOException if reading fails or the stream is not a valid snapshot.
+	 */
+	public static Strie readFrom(java.nio.channels.ReadableByteChannel in) throws java.io.IOException{
+		
+		return StrieSnapshot.read(in);
+	}
+    
+	/**
+	 * Insert word into the Strie in a single pass over its characters.
+	 * Null and empty words are skipped.
 	 * @param word a String.
 	 */
 	public void insert(String word){
 		
-		if(this.contains(word) || word == null) {
+		if(word == null || word.isEmpty()) {
 			return;
 		}
 		
@@ -61,30 +213,32 @@ public class Strie{
 			
 		for( int i = 0; i< word.length(); i++){ /* traverses the characters of word. */
 			
+			StrieNode next = cur.getChild(word.charAt(i)); /* one lookup per character. */
+			
 			/* if the character isn't in the Strie.*/
-			if(!cur.containsChild(word.charAt(i)) ) {
+			if(next == null) {
 					
 				if(cur.checkFlag()) { /*Check if it's the end of chain.*/
 					cur.unSetFlag();
 				}
 				
-            
-				cur.putChild(word.charAt(i),new StrieNode()); /* Adds the character into the strie. */
+				next = new StrieNode();
+				cur.putChild(word.charAt(i), next); /* Adds the character into the strie. */
+				numNodes++;
 			}
 		    
-              
-		    cur = cur.getChild(word.charAt(i)); /* goes to next StrieNode in the chain. */
-		    	
-		    
-		    if(i == word.length()-1) { /* Last character of word.  */
-					
-		    	cur.setEnd();
-					
-		  /* If it's the end of the chain, set the flag. */
-				if(cur.getNumChildren() == 0) {
-			    	cur.setFlag();
-			    }
-			}
+		    cur = next; /* goes to next StrieNode in the chain. */
+		}
+		
+		if(cur.isEnd()) { /* The word is already in the strie. */
+			return;
+		}
+		
+		cur.setEnd();
+		
+		/* If it's the end of the chain, set the flag. */
+		if(cur.getNumChildren() == 0) {
+			cur.setFlag();
 		}
 		
 	    numWords++;
@@ -92,6 +246,84 @@ public class Strie{
 	}
 
 
+	/**
+	 * Bulk loads words into the Strie in a single pass.
+	 * The path of the previous word is kept, so each word only walks the
+	 * characters it does not share with the previous one, and nodes below
+	 * the first newly created one are appended without any lookup.
+	 * Any order is accepted, but sorted input shares the longest prefixes
+	 * and makes loading linear in the total input length.
+	 * Null and empty words are skipped.
+	 * @param words an iterator of words, ideally in ascending order.
+	 * @return the number of words that were not already in the Strie.
+	 */
+	public int insertSorted(Iterator<String> words){
+		
+		StrieNode[] path = new StrieNode[16];  /* path[d] is the node after d characters of prev. */
+		path[0] = root;
+		String prev = "";
+		int added = 0;
+		
+		while(words.hasNext()) {
+			
+			String word = words.next();
+			if(word == null || word.isEmpty()) {
+				continue;
+			}
+			
+			int common = 0;  /* how much of the previous path is reused. */
+			int max = Math.min(word.length(), prev.length());
+			while(common < max && word.charAt(common) == prev.charAt(common)) {
+				common++;
+			}
+			
+			if(path.length <= word.length()) {
+				path = java.util.Arrays.copyOf(path, Math.max(word.length() + 1, path.length * 2));
+			}
+			
+			boolean fresh = false;  /* true once below a node created for this word. */
+			for(int d = common; d < word.length(); d++) {
+				StrieNode cur = path[d];
+				StrieNode next = fresh ? null : cur.getChild(word.charAt(d));
+				
+				if(next == null) {
+					if(cur.checkFlag()) { /*Check if it's the end of chain.*/
+						cur.unSetFlag();
+					}
+					next = new StrieNode();
+					cur.putChild(word.charAt(d), next);
+					numNodes++;
+					fresh = true;
+				}
+				path[d + 1] = next;
+			}
+			
+			StrieNode last = path[word.length()];
+			if(!last.isEnd()) {
+				last.setEnd();
+				if(last.getNumChildren() == 0) { /* If it's the end of the chain, set the flag. */
+					last.setFlag();
+				}
+				numWords++;
+				added++;
+			}
+			prev = word;
+		}
+		
+		return added;
+	}
+	
+	/**
+	 * Bulk loads a stream of words into the Strie in a single pass.
+	 * @param words a stream of words, ideally in ascending order.
+	 * @return the number of words that were not already in the Strie.
+	 * @see #insertSorted(Iterator)
+	 */
+	public int insertSorted(Stream<String> words){
+		
+		return insertSorted(words.iterator());
+	}
+
 	/**
 	 * Returns true if Strie contains the given word. Otherwise returns false.
 	 * @param word a String.
@@ -123,6 +355,110 @@ public class Strie{
 		return false;	
 	}
     
+	/**
+	 * Returns every word within maxEdits insertions, deletions or substitutions
+	 * of word, in ascending order.
+	 * The Levenshtein table is computed one row per node while walking the Strie,
+	 * and a branch is dropped as soon as every cell of its row is above maxEdits.
+	 * Rows are allocated as the walk goes deeper, so memory follows the depth reached
+	 * (at most the longest word) and not maxEdits, which may be as large as an int allows.
+	 * @param word the query.
+	 * @param maxEdits the largest edit distance to accept.
+	 * @return a SimpleList of FuzzyMatch, empty if nothing is close enough.
+	 * @throws IllegalArgumentException if maxEdits is negative.
+	 */
+	public SimpleList<FuzzyMatch> fuzzySearch(String word, int maxEdits){
+		
+		if(maxEdits < 0) {
+			throw new IllegalArgumentException("maxEdits must not be negative: " + maxEdits);
+		}
+		
+		SimpleList<FuzzyMatch> matches = new SimpleList<FuzzyMatch>();
+		if(word == null || numWords == 0) {
+			return matches;
+		}
+		
+		int n = word.length();
+		RingDeque<int[]> rows = new RingDeque<int[]>(n + 2);  /* rows.get(d) is the row at depth d. */
+		int[] first = new int[n + 1];
+		for(int j = 0; j <= n; j++) {
+			first[j] = j;
+		}
+		rows.addLast(first);
+		
+		StrieChildMap children = root.getAllChildren();
+		StringBuilder s = new StringBuilder();
+		for(int i = 0; i < children.size(); i++) {
+			fuzzySearchHelper(children.childAt(i), children.keyAt(i), 1, word, maxEdits, rows, s, matches);
+		}
+		return matches;
+	}
+	
+	/**
+	 * Computes the row for node and recurses into its children while the row
+	 * can still lead to a match.
+	 * @param node the node reached by ch.
+	 * @param ch the character leading to node.
+	 * @param depth the depth of node, rows[depth-1] holds its parent's row.
+	 * @param word the query.
+	 * @param maxEdits the largest edit distance to accept.
+	 * @param rows the Levenshtein rows, one per depth reached so far, grown as needed.
+	 * @param s the characters on the path to node's parent, restored before returning.
+	 * @param matches the list of matches.
+	 */
+	private void fuzzySearchHelper(StrieNode node, char ch, int depth, String word, int maxEdits,
+			RingDeque<int[]> rows, StringBuilder s, SimpleList<FuzzyMatch> matches){
+		
+		int n = word.length();
+		if(depth == rows.size()) {  /* first visit this deep. */
+			rows.addLast(new int[n + 1]);
+		}
+		int[] prev = rows.get(depth - 1);
+		int[] row = rows.get(depth);
+		
+		row[0] = depth;
+		int min = depth;
+		for(int j = 1; j <= n; j++) {
+			int cost = word.charAt(j - 1) == ch ? 0 : 1;
+			row[j] = Math.min(Math.min(prev[j] + 1, row[j - 1] + 1), prev[j - 1] + cost);
+			min = Math.min(min, row[j]);
+		}
+		
+		if(min > maxEdits) { /* nothing below can come back under the limit. */
+			return;
+		}
+		
+		s.append(ch);
+		if(node.isEnd() && row[n] <= maxEdits) {
+			matches.addLast(new FuzzyMatch(s.toString(), row[n]));
+		}
+		
+		StrieChildMap children = node.getAllChildren();
+		for(int i = 0; i < children.size(); i++) {
+			fuzzySearchHelper(children.childAt(i), children.keyAt(i), depth + 1, word, maxEdits, rows, s, matches);
+		}
+		s.setLength(s.length() - 1);
+	}
+	
+	/**
+	 * Returns every word matching a wildcard pattern, in ascending order.
+	 * ? matches any one character, * any run of characters,
+	 * [abc], [a-z] and [!abc] one character in or out of a set,
+	 * and a backslash makes the next character literal.
+	 * Only the children that can still match are visited.
+	 * @param pattern the pattern.
+	 * @return a SimpleList of Strings, empty if nothing matches.
+	 * @throws IllegalArgumentException if the pattern is malformed.
+	 */
+	public SimpleList<String> match(String pattern){
+		
+		if(pattern == null || numWords == 0) {
+			return new SimpleList<String>();
+		}
+		
+		return new StriePattern(pattern).match(root);
+	}
+	
 	/**
 	 * Removes the given word from Strie. 
 	 * If word is not present in strie, return false. 
@@ -182,12 +518,14 @@ public class Strie{
 		if(check == -2 && n != null) {
          
 			n.removeChild(word.charAt(0));
+			numNodes -= word.length();  /* the whole chain goes. */
 			numWords--;
 			return true;
 		}
 		if(check >= 0 && n != null) {
 			
 			n.removeChild(word.charAt(check+1));
+			numNodes -= word.length() - check - 1;  /* the chain below n goes. */
 			if(n.getNumChildren() == 0) {
 				n.setFlag();
 			}
@@ -204,6 +542,7 @@ public class Strie{
      * Returns a string of all characters encountered in the traversal.
      * If a Strie has no words, return an empty string.
      * A single space should be padded between characters.
+     * Siblings come in ascending character order.
      * @return a String value.
      */
 	public String levelOrderTraversal(){
@@ -212,50 +551,34 @@ public class Strie{
 			return "";
 		}
 		
-		StrieNode cur = root;
 		StringBuilder s = new StringBuilder("");
-		SimpleList<StrieNode> q = new SimpleList<StrieNode>(); /*This is the queue.*/
+		RingDeque<StrieNode> q = new RingDeque<StrieNode>(); /*This is the queue.*/
 		
-		int n = 0;
-
+		q.addLast(root); /* Add root. */
 		
-		q.addLast(cur); /* Add root. */
-		    
-		do{                  /*Iterates through each level of the tree.  */                                   
-			n = q.size();
-		 
-		        
-		    do{             /* Goes through the nodes in the level. */
-		        	
-		        	
-		        StrieNode p = q.removeFirst();
-		        SimpleList<Character> list = p.getAllChildren().getKeys();
-		        Character c = '\0';
-		        int size = list.size();
-		        	
-		        for (int i = 0; i < size; i++) {  /* Goes through children of node. */
-		            	
-		            c = list.removeFirst();
-		            	
-		            if(c != '\0') {
-		            		
-		            	s.append(c + " ");
-		            	q.addLast(p.getChild(c));
-		            		
-		            }
-		        }
-		            
-		        n--;
-		            
-		    }while (n > 0);   
-		}while (q.size() > 0); /* If there's anything left to go through. */
-		     
-		return s.substring(0,s.length()-1).toString(); /* Get rid of extra space at the end. */	
+		while(!q.isEmpty()) {  /* Nodes come out level by level. */
+			
+			StrieChildMap children = q.removeFirst().getAllChildren();
+			
+			for(int i = 0; i < children.size(); i++) {  /* Goes through children of node, in key order. */
+				
+				char c = children.keyAt(i);
+				if(c != '\0') {
+					s.append(c).append(' ');
+					q.addLast(children.childAt(i));
+				}
+			}
+		}
+		
+		if(s.length() == 0) {
+			return "";
+		}
+		return s.substring(0,s.length()-1); /* Get rid of extra space at the end. */	
 	}
 
     
 	/**
-	 * Returns a list of all the words found in the tree.
+	 * Returns a list of all the words found in the tree, in ascending order.
 	 * @return a SimpleList of Strings.
 	 */
 	public SimpleList<String> getStrieWords(){
@@ -265,45 +588,109 @@ public class Strie{
 			return null;
 		}
 		
-		String s = "";
 		SimpleList<String> strList = new SimpleList<String>();
+		Iterator<String> it = new StrieWordIterator(root, "", Long.MAX_VALUE);
 		
-		getStrieWordsHelper(' ',strList, s, root); /* Recursive method. */
+		while(it.hasNext()) {
+			strList.addLast(it.next());
+		}
 		
 		return strList;
 	}
 	
+	/**
+	 * Returns a spliterator over all the words, in ascending order.
+	 * It splits by handing off sibling subtrees, so parallel streams stay balanced.
+	 * The Strie must not be changed while it is in use.
+	 * @return a Spliterator of Strings.
+	 */
+	public Spliterator<String> spliterator(){
+		
+		return StrieSpliterator.words(this);
+	}
+	
+	/**
+	 * Returns a stream of all the words, in ascending order.
+	 * Call parallel() on it to count, filter or export words on all cores.
+	 * @return a Stream of Strings.
+	 */
+	public Stream<String> stream(){
+		
+		return StreamSupport.stream(spliterator(), false);
+	}
+	
+	/**
+	 * Returns a stream of all the nodes, root included, in preorder.
+	 * It can be made parallel like stream().
+	 * @return a Stream of StrieNodes.
+	 */
+	public Stream<StrieNode> nodeStream(){
+		
+		return StreamSupport.stream(StrieSpliterator.nodes(this, numNodes), false);
+	}
+	
+	/**
+	 * Reports on the child tables of every node: layouts, fill and fan-out,
+	 * plus the search counters when HashStats.ENABLED.
+	 * @return a StrieChildMapStats.
+	 */
+	public StrieChildMapStats childMapStats(){
+		
+		return new StrieChildMapStats(root);
+	}
 	
-	   /**
-	 * A recursive method that searchs for possible words and adding it to a SimpleList of Strings.
-	 * @param ch a character.
-	 * @param strList the string list.
-	 * @param s a string.
-	 * @param c a StrieNode.
-	 */
-    private void getStrieWordsHelper(Character ch, SimpleList<String> strList, String s, StrieNode c) { //preorder traversal: C L R
-    	  
-    	if(c == null) { /*stopping point.*/
-    		return;
-    	}
-        if(c != root) { /*The root doesn't have a character.*/
-        	s = s + ch;
-        }
-        if(c.isEnd()) { /* The end of a word, add it to list. */
-        	strList.addLast(s);
-        }
-          
-        if(!c.checkFlag()) { /* if it's not the end of the chain. */
-        	  
-        	SimpleList<Character> charL = c.getAllChildren().getKeys();
-        	  
-        	  
-        	while(charL.size() > 0) {    /*adds from children from L to R. */
-        		ch = charL.removeFirst();
-        		getStrieWordsHelper(ch,strList,s, c.getChild(ch));
-        	}
-        }
-    	
-    }
+	/**
+	 * Estimates the heap used by the strie: node count, children per node,
+	 * bytes per component, per word and per character.
+	 * @return a StrieFootprint.
+	 */
+	public StrieFootprint footprint(){
+		
+		return new StrieFootprint(root, numWords);
+	}
+	
+	/**
+	 * Returns a lazy iterator over the words starting with prefix, in ascending order.
+	 * Words are produced one at a time as the iterator advances.
+	 * The Strie must not be changed while the iterator is in use.
+	 * @param prefix a String.
+	 * @return an iterator of Strings, empty if no word starts with prefix.
+	 */
+	public Iterator<String> wordsWithPrefix(String prefix){
+		
+		return wordsWithPrefix(prefix, Long.MAX_VALUE);
+	}
+	
+	/**
+	 * Returns a lazy iterator over at most limit words starting with prefix, in ascending order.
+	 * @param prefix a String.
+	 * @param limit the largest number of words to return.
+	 * @return an iterator of Strings, empty if no word starts with prefix.
+	 */
+	public Iterator<String> wordsWithPrefix(String prefix, long limit){
+		
+		if(prefix == null) {
+			prefix = "";
+		}
+		
+		StrieNode cur = root;
+		for(int i = 0; i < prefix.length() && cur != null; i++) {  /* walk down to the prefix. */
+			cur = cur.getChild(prefix.charAt(i));
+		}
+		
+		return new StrieWordIterator(cur, prefix, limit);
+	}
+	
+	/**
+	 * Returns a lazy sequential stream of the words starting with prefix, in ascending order.
+	 * Short-circuiting operations such as limit() or findFirst() stop the walk early.
+	 * @param prefix a String.
+	 * @return a Stream of Strings.
+	 */
+	public Stream<String> streamWordsWithPrefix(String prefix){
+		
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(wordsWithPrefix(prefix),
+				Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+	}
 	
 }
@@ -0,0 +1,408 @@
+/**
+ * A child table specialized for char keys.
+ * Keys are kept sorted in a primitive char array with the matching
+ * child nodes in a parallel array, so no Character is boxed and
+ * no Pair is allocated when looking a child up.
+ *
+ * The table adapts its layout to the number of children, in the style
+ * of an adaptive radix tree:
+ * small tables (up to SMALL_MAX children) are exactly sized and scanned linearly,
+ * medium tables are searched by binary search,
+ * and wide tables (above DIRECT_MIN children) also keep a 256-way
+ * direct index so that Latin-1 keys are found with one array read.
+ *
+ * When HashStats.ENABLED, every table adds its searches to static counters
+ * shared by all tables; they are not synchronized and only approximate
+ * when several threads search at once.
+ */
+class StrieChildMap {
+
+	/**
+	 * Shared empty key array so leaf nodes allocate no storage.
+	 */
+	private static final char[] NO_KEYS = new char[0];
+
+	/**
+	 * Shared empty node array so leaf nodes allocate no storage.
+	 */
+	private static final StrieNode[] NO_NODES = new StrieNode[0];
+
+	/**
+	 * Largest table that is searched with a linear scan.
+	 */
+	static final int SMALL_MAX = 4;
+
+	/**
+	 * Size at which a table gets a direct index.
+	 */
+	static final int DIRECT_MIN = 48;
+
+	/**
+	 * Size below which a table drops its direct index.
+	 * Lower than DIRECT_MIN so a table does not flip back and forth.
+	 */
+	static final int DIRECT_DROP = 36;
+
+	/**
+	 * Number of keys covered by the direct index.
+	 */
+	static final int DIRECT_LENGTH = 256;
+
+	/**
+	 * Sorted keys of the children.
+	 */
+	private char[] keys;
+
+	/**
+	 * Child nodes, nodes[i] is the child for keys[i].
+	 */
+	private StrieNode[] nodes;
+
+	/**
+	 * Direct index for keys below DIRECT_LENGTH, null unless the table is wide.
+	 */
+	private StrieNode[] direct;
+
+	/**
+	 * The number of children stored.
+	 */
+	private int size;
+
+	/**
+	 * Number of key searches of all tables, counted only when HashStats.ENABLED.
+	 */
+	private static long lookups;
+
+	/**
+	 * Number of keys compared or direct slots read by those searches.
+	 */
+	private static long probes;
+
+	/**
+	 * Constructor. Initially no children and no storage.
+	 */
+	public StrieChildMap(){
+
+		keys = NO_KEYS;
+		nodes = NO_NODES;
+	}
+
+	/**
+	 * Constructor. Initially no children, with room for capacity of them
+	 * so a table whose size is known up front never resizes.
+	 * @param capacity the number of children expected.
+	 */
+	public StrieChildMap(int capacity){
+
+		if(capacity <= 0) {
+			keys = NO_KEYS;
+			nodes = NO_NODES;
+		}
+		else {
+			keys = new char[capacity];
+			nodes = new StrieNode[capacity];
+		}
+	}
+
+	/**
+	 * Report the number of children.
+	 * @return an int.
+	 */
+	public int size(){
+
+		return size;
+	}
+
+	/**
+	 * Returns the index of ch in keys, or (-(insertion point) - 1) if absent.
+	 * @param ch a character.
+	 * @return an int.
+	 */
+	private int indexOf(char ch){
+
+		if(size <= SMALL_MAX) {  /* small table: linear scan. */
+			int i = 0;
+			while(i < size && keys[i] < ch) {
+				i++;
+			}
+			count(Math.min(i + 1, size));
+			return (i < size && keys[i] == ch) ? i : -(i + 1);
+		}
+
+		int lo = 0;
+		int hi = size - 1;
+		int n = 0;
+
+		while(lo <= hi){  /* binary search over the sorted keys. */
+			n++;
+			int mid = (lo + hi) >>> 1;
+			char k = keys[mid];
+			if(k < ch) {
+				lo = mid + 1;
+			}
+			else if(k > ch) {
+				hi = mid - 1;
+			}
+			else {
+				count(n);
+				return mid;
+			}
+		}
+		count(n);
+		return -(lo + 1);
+	}
+
+	/**
+	 * Counts one search that looked at n keys, if counting is on.
+	 * @param n the number of keys.
+	 */
+	private static void count(int n){
+
+		if(HashStats.ENABLED) {
+			lookups++;
+			probes += n;
+		}
+	}
+
+	/**
+	 * Returns the number of key searches of all tables, 0 unless HashStats.ENABLED.
+	 * @return a long.
+	 */
+	static long lookups(){
+
+		return lookups;
+	}
+
+	/**
+	 * Returns the number of keys looked at by searches of all tables, 0 unless HashStats.ENABLED.
+	 * @return a long.
+	 */
+	static long probes(){
+
+		return probes;
+	}
+
+	/**
+	 * Sets the shared counters back to zero.
+	 */
+	static void resetStats(){
+
+		lookups = 0;
+		probes = 0;
+	}
+
+	/**
+	 * Checks whether there is a child for ch.
+	 * @param ch a character.
+	 * @return a boolean value.
+	 */
+	public boolean contains(char ch){
+
+		return get(ch) != null;
+	}
+
+	/**
+	 * Returns the child for ch, or null if there is none.
+	 * @param ch a character.
+	 * @return a StrieNode.
+	 */
+	public StrieNode get(char ch){
+
+		if(direct != null && ch < DIRECT_LENGTH) {  /* wide table: one array read. */
+			count(1);
+			return direct[ch];
+		}
+
+		int i = indexOf(ch);
+		return i >= 0 ? nodes[i] : null;
+	}
+
+	/**
+	 * Maps ch to node, replacing any existing child for ch.
+	 * @param ch a character.
+	 * @param node a StrieNode.
+	 * @return true if the key was new; false if an existing child was replaced.
+	 */
+	public boolean put(char ch, StrieNode node){
+
+		if(node == null) {
+			return false;
+		}
+
+		int i = indexOf(ch);
+		if(i >= 0) {  /* already present, replace in place. */
+			nodes[i] = node;
+			if(direct != null && ch < DIRECT_LENGTH) {
+				direct[ch] = node;
+			}
+			return false;
+		}
+
+		i = -(i + 1);
+		if(size == keys.length) {
+			resize(grownLength(size));
+		}
+
+		System.arraycopy(keys, i, keys, i + 1, size - i);  /* shift to keep keys sorted. */
+		System.arraycopy(nodes, i, nodes, i + 1, size - i);
+		keys[i] = ch;
+		nodes[i] = node;
+		size++;
+
+		if(direct != null) {
+			if(ch < DIRECT_LENGTH) {
+				direct[ch] = node;
+			}
+		}
+		else if(size >= DIRECT_MIN) {  /* became wide, build the direct index. */
+			buildDirect();
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the child for ch.
+	 * @param ch a character.
+	 * @return true if a child was removed; false otherwise.
+	 */
+	public boolean remove(char ch){
+
+		int i = indexOf(ch);
+		if(i < 0) {
+			return false;
+		}
+
+		size--;
+		System.arraycopy(keys, i + 1, keys, i, size - i);
+		System.arraycopy(nodes, i + 1, nodes, i, size - i);
+		nodes[size] = null;  /* let go of the removed node. */
+
+		if(direct != null) {
+			if(size < DIRECT_DROP) {  /* no longer wide. */
+				direct = null;
+			}
+			else if(ch < DIRECT_LENGTH) {
+				direct[ch] = null;
+			}
+		}
+
+		if(size == 0) {
+			keys = NO_KEYS;
+			nodes = NO_NODES;
+		}
+		else if(keys.length > SMALL_MAX && size <= keys.length / 4) {  /* mostly empty, shrink. */
+			resize(Math.max(SMALL_MAX, size * 2));
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the array length to grow to from a full table of the given size.
+	 * Small tables grow 1, 2, 4 so narrow nodes stay tiny, larger ones by half.
+	 * @param size the current size.
+	 * @return an int.
+	 */
+	private static int grownLength(int size){
+
+		if(size == 0) {
+			return 1;
+		}
+		if(size < SMALL_MAX) {
+			return Math.min(size * 2, SMALL_MAX);
+		}
+		return Math.min(size + (size >> 1), Character.MAX_VALUE + 1);
+	}
+
+	/**
+	 * Copies keys and nodes into arrays of the given length.
+	 * @param length the new array length, at least size.
+	 */
+	private void resize(int length){
+
+		char[] newKeys = new char[length];
+		StrieNode[] newNodes = new StrieNode[length];
+		System.arraycopy(keys, 0, newKeys, 0, size);
+		System.arraycopy(nodes, 0, newNodes, 0, size);
+		keys = newKeys;
+		nodes = newNodes;
+	}
+
+	/**
+	 * Builds the direct index from the sorted arrays.
+	 */
+	private void buildDirect(){
+
+		direct = new StrieNode[DIRECT_LENGTH];
+		for(int i = 0; i < size && keys[i] < DIRECT_LENGTH; i++) {  /* keys are sorted, stop at the first wide char. */
+			direct[keys[i]] = nodes[i];
+		}
+	}
+
+	/**
+	 * Returns the length of the key and node arrays.
+	 * @return an int, at least size().
+	 */
+	int capacity(){
+
+		return keys.length;
+	}
+
+	/**
+	 * Checks whether the table keeps a direct index.
+	 * @return a boolean value.
+	 */
+	boolean isDirect(){
+
+		return direct != null;
+	}
+
+	/**
+	 * Returns the key at position i, in ascending key order.
+	 * @param i an index between 0 and size()-1.
+	 * @return a character.
+	 */
+	public char keyAt(int i){
+
+		return keys[i];
+	}
+
+	/**
+	 * Returns the child at position i, in ascending key order.
+	 * @param i an index between 0 and size()-1.
+	 * @return a StrieNode.
+	 */
+	public StrieNode childAt(int i){
+
+		return nodes[i];
+	}
+
+	/**
+	 * Return all keys as a list, in ascending order.
+	 * @return the list with all keys in it.
+	 */
+	public SimpleList<Character> getKeys(){
+
+		SimpleList<Character> list = new SimpleList<>();
+		for(int i = 0; i < size; i++) {
+			list.addLast(keys[i]);
+		}
+		return list;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString(){
+
+		StringBuilder s = new StringBuilder("[");
+		for(int i = 0; i < size; i++) {
+			if(i > 0) {
+				s.append(",");
+			}
+			s.append(keys[i]);
+		}
+		s.append("]");
+		return s.toString();
+	}
+}
@@ -0,0 +1,210 @@
+/**
+ * An aggregate report over every child table of a Strie:
+ * how many tables use each layout, how full their arrays are,
+ * a fan-out histogram, and the shared search counters of StrieChildMap
+ * (kept only when HashStats.ENABLED).
+ * The child tables are sorted arrays rather than hash tables, so a
+ * probe here is one key compared, or one direct index read.
+ */
+class StrieChildMapStats {
+
+	/**
+	 * Number of tables, one per node.
+	 */
+	private long maps;
+
+	/**
+	 * Number of tables with no children.
+	 */
+	private long empty;
+
+	/**
+	 * Number of tables searched by linear scan.
+	 */
+	private long linear;
+
+	/**
+	 * Number of tables searched by binary search.
+	 */
+	private long binary;
+
+	/**
+	 * Number of tables with a direct index.
+	 */
+	private long direct;
+
+	/**
+	 * Number of children over all tables.
+	 */
+	private long keys;
+
+	/**
+	 * Number of array slots over all tables, used or not.
+	 */
+	private long slots;
+
+	/**
+	 * fanOut[n] is the number of tables with n children.
+	 */
+	private final int[] fanOut = new int[HashStats.HISTOGRAM_LENGTH];
+
+	/**
+	 * The largest number of children of a table.
+	 */
+	private int maxFanOut;
+
+	/**
+	 * Searches of all tables since the counters were last reset.
+	 */
+	private final long lookups;
+
+	/**
+	 * Keys looked at by those searches.
+	 */
+	private final long probes;
+
+	/**
+	 * Constructor, walks every node below root.
+	 * @param root the root of a Strie.
+	 */
+	StrieChildMapStats(StrieNode root){
+
+		lookups = StrieChildMap.lookups();
+		probes = StrieChildMap.probes();
+
+		RingDeque<StrieNode> stack = new RingDeque<StrieNode>();
+		stack.addLast(root);
+
+		while(!stack.isEmpty()) {
+			StrieChildMap children = stack.removeLast().getAllChildren();
+			int n = children.size();
+
+			maps++;
+			keys += n;
+			slots += children.capacity();
+			HashStats.record(fanOut, n);
+			maxFanOut = Math.max(maxFanOut, n);
+
+			if(n == 0) {
+				empty++;
+			}
+			else if(children.isDirect()) {
+				direct++;
+			}
+			else if(n <= StrieChildMap.SMALL_MAX) {
+				linear++;
+			}
+			else {
+				binary++;
+			}
+
+			for(int i = 0; i < n; i++) {
+				stack.addLast(children.childAt(i));
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of tables.
+	 * @return a long.
+	 */
+	public long maps(){
+
+		return maps;
+	}
+
+	/**
+	 * Returns the number of tables with no children.
+	 * @return a long.
+	 */
+	public long emptyMaps(){
+
+		return empty;
+	}
+
+	/**
+	 * Returns the number of tables searched by linear scan.
+	 * @return a long.
+	 */
+	public long linearMaps(){
+
+		return linear;
+	}
+
+	/**
+	 * Returns the number of tables searched by binary search.
+	 * @return a long.
+	 */
+	public long binaryMaps(){
+
+		return binary;
+	}
+
+	/**
+	 * Returns the number of tables with a direct index.
+	 * @return a long.
+	 */
+	public long directMaps(){
+
+		return direct;
+	}
+
+	/**
+	 * Returns the fraction of array slots in use over all tables.
+	 * @return a double, 1 if there are no slots.
+	 */
+	public double occupancy(){
+
+		return slots == 0 ? 1 : (double) keys / slots;
+	}
+
+	/**
+	 * Returns the fan-out histogram: entry n counts the tables with n children,
+	 * the last entry counts every wider table.
+	 * @return a copy of the histogram.
+	 */
+	public int[] fanOutHistogram(){
+
+		return fanOut.clone();
+	}
+
+	/**
+	 * Returns the largest number of children of a table.
+	 * @return an int.
+	 */
+	public int maxFanOut(){
+
+		return maxFanOut;
+	}
+
+	/**
+	 * Returns the average number of keys looked at per search, 0 unless HashStats.ENABLED.
+	 * @return a double.
+	 */
+	public double averageProbes(){
+
+		return lookups == 0 ? 0 : (double) probes / lookups;
+	}
+
+	/**
+	 * Returns a multi-line report.
+	 * @return a String.
+	 */
+	@Override
+	public String toString(){
+
+		StringBuilder s = new StringBuilder("StrieChildMapStats:\n");
+		s.append("maps=").append(maps).append(" empty=").append(empty)
+			.append(" linear=").append(linear).append(" binary=").append(binary)
+			.append(" direct=").append(direct).append("\n");
+		s.append("keys=").append(keys).append(" slots=").append(slots)
+			.append(String.format(" occupancy=%.3f", occupancy())).append("\n");
+		HashStats.appendHistogram(s, "fanOut", fanOut);
+		s.append("maxFanOut=").append(maxFanOut);
+		if(HashStats.ENABLED) {
+			s.append("\nlookups=").append(lookups).append(" probes=").append(probes)
+				.append(String.format(" avgProbes=%.3f", averageProbes()));
+		}
+		return s.toString();
+	}
+}
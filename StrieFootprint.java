@@ -0,0 +1,460 @@
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Estimates the heap retained by a Strie, broken down by component.
+ * It walks every node once and sizes each object from a model of the
+ * HotSpot layout (object header, reference width and alignment read from
+ * the running JVM), so the numbers match what a heap dump would show to
+ * within field packing.
+ *
+ * Next to the current layout it estimates what the same tree costs with the
+ * original child tables: a HashMap of Pairs over a chained ThreeTenHashSet
+ * of SimpleLists, with boxed Character keys. That is the baseline any layout
+ * change is measured against.
+ */
+class StrieFootprint {
+
+	/**
+	 * Names of the current components, in report order.
+	 */
+	static final String[] COMPONENTS = {"StrieNode", "StrieChildMap", "char[] keys", "StrieNode[] nodes",
+			"direct index", "radix labels"};
+
+	/**
+	 * Names of the legacy components, in report order.
+	 */
+	static final String[] LEGACY_COMPONENTS = {"StrieNode", "HashMap", "ThreeTenHashSet", "SimpleList[] tables",
+			"SimpleList", "SimpleList nodes", "Pair", "Character"};
+
+	/**
+	 * Initial length of a legacy child table.
+	 */
+	private static final int LEGACY_INIT_LENGTH = 5;
+
+	/**
+	 * Chains per bucket at which a legacy table doubled.
+	 */
+	private static final int LEGACY_MAX_LOAD = 2;
+
+	/**
+	 * Largest char whose Character is cached by Character.valueOf.
+	 */
+	private static final char CHARACTER_CACHE_MAX = 127;
+
+	/**
+	 * Bytes of an object header.
+	 */
+	private final int header;
+
+	/**
+	 * Bytes of a reference.
+	 */
+	private final int ref;
+
+	/**
+	 * Objects start at multiples of this many bytes.
+	 */
+	private final int alignment;
+
+	/**
+	 * Number of nodes.
+	 */
+	private long nodes;
+
+	/**
+	 * Number of words.
+	 */
+	private final long words;
+
+	/**
+	 * Total length of the words.
+	 */
+	private long chars;
+
+	/**
+	 * fanOut[n] is the number of nodes with n children.
+	 */
+	private final int[] fanOut = new int[HashStats.HISTOGRAM_LENGTH];
+
+	/**
+	 * Bytes per current component, indexed like COMPONENTS.
+	 */
+	private final long[] bytes = new long[COMPONENTS.length];
+
+	/**
+	 * Bytes per legacy component, indexed like LEGACY_COMPONENTS.
+	 */
+	private final long[] legacy = new long[LEGACY_COMPONENTS.length];
+
+	/**
+	 * The last node class sized, nodes mostly share one class.
+	 */
+	private Class<?> lastClass;
+
+	/**
+	 * Shallow size of lastClass.
+	 */
+	private long lastSize;
+
+	/**
+	 * Constructor, walks every node below root.
+	 * @param root the root of a Strie or RadixStrie.
+	 * @param numWords the number of words stored.
+	 */
+	StrieFootprint(StrieNode root, int numWords){
+
+		boolean compressedOops = vmFlag("UseCompressedOops", true);
+		boolean compressedClass = vmFlag("UseCompressedClassPointers", compressedOops);
+		header = compressedClass ? 12 : 16;
+		ref = compressedOops ? 4 : 8;
+		alignment = vmInt("ObjectAlignmentInBytes", 8);
+		words = numWords;
+
+		long mapBytes = shallow(StrieChildMap.class);
+		long legacyNode = object(1, 2);  /* children, endMarker, flag. */
+		long legacyMap = object(1, 0);  /* hashTable. */
+		long legacySet = object(1, 8);  /* table, capacity, size. */
+		long legacyList = object(2, 4);  /* head, tail, size. */
+		long legacyListNode = object(3, 0);  /* value, next, and the outer SimpleList. */
+		long legacyPair = object(2, 0);  /* key, value. */
+		long legacyCharacter = object(0, 2);
+
+		RingDeque<StrieNode> stack = new RingDeque<StrieNode>();
+		int[] depth = new int[16];  /* depth[i] is the length of the word ending at stack.get(i). */
+		stack.addLast(root);
+
+		while(!stack.isEmpty()) {
+			int d = depth[stack.size() - 1];
+			StrieNode node = stack.removeLast();
+			StrieChildMap children = node.getAllChildren();
+			int n = children.size();
+
+			nodes++;
+			HashStats.record(fanOut, n);
+			if(node.isEnd()) {
+				chars += d;
+			}
+
+			bytes[0] += shallowNode(node);
+			bytes[1] += mapBytes;
+			if(children.capacity() > 0) {  /* empty tables share one empty array. */
+				bytes[2] += array(2, children.capacity());
+				bytes[3] += array(ref, children.capacity());
+			}
+			if(children.isDirect()) {
+				bytes[4] += array(ref, StrieChildMap.DIRECT_LENGTH);
+			}
+			if(node instanceof RadixStrieNode && ((RadixStrieNode) node).getLabel().length > 0) {
+				bytes[5] += array(2, ((RadixStrieNode) node).getLabel().length);
+			}
+
+			int length = legacyLength(n);
+			legacy[0] += legacyNode;
+			legacy[1] += legacyMap;
+			legacy[2] += legacySet;
+			legacy[3] += array(ref, length);
+			legacy[4] += legacyList * legacyBuckets(children, length);
+			legacy[5] += legacyListNode * n;
+			legacy[6] += legacyPair * n;
+
+			for(int i = 0; i < n; i++) {
+				StrieNode child = children.childAt(i);
+				if(children.keyAt(i) > CHARACTER_CACHE_MAX) {
+					legacy[7] += legacyCharacter;
+				}
+				int childDepth = d + (child instanceof RadixStrieNode ? ((RadixStrieNode) child).getLabel().length : 1);
+				stack.addLast(child);
+				if(stack.size() > depth.length) {
+					depth = java.util.Arrays.copyOf(depth, depth.length * 2);
+				}
+				depth[stack.size() - 1] = childDepth;
+			}
+		}
+	}
+
+	/**
+	 * Reads a boolean HotSpot flag of the running JVM.
+	 * @param name the flag.
+	 * @param fallback the value used when it cannot be read.
+	 * @return a boolean value.
+	 */
+	private static boolean vmFlag(String name, boolean fallback){
+
+		String v = vmOption(name);
+		return v == null ? fallback : Boolean.parseBoolean(v);
+	}
+
+	/**
+	 * Reads an int HotSpot flag of the running JVM.
+	 * @param name the flag.
+	 * @param fallback the value used when it cannot be read.
+	 * @return an int.
+	 */
+	private static int vmInt(String name, int fallback){
+
+		String v = vmOption(name);
+		try {
+			return v == null ? fallback : Integer.parseInt(v);
+		}
+		catch(NumberFormatException e) {
+			return fallback;
+		}
+	}
+
+	/**
+	 * Returns the value of a HotSpot flag, or null on other JVMs.
+	 * @param name the flag.
+	 * @return a String.
+	 */
+	private static String vmOption(String name){
+
+		try {
+			com.sun.management.HotSpotDiagnosticMXBean bean = java.lang.management.ManagementFactory
+					.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class);
+			return bean == null ? null : bean.getVMOption(name).getValue();
+		}
+		catch(RuntimeException | LinkageError e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Rounds up to the alignment.
+	 * @param size a size in bytes.
+	 * @return a long.
+	 */
+	private long align(long size){
+
+		return (size + alignment - 1) / alignment * alignment;
+	}
+
+	/**
+	 * Returns the size of an object with the given fields.
+	 * @param refs the number of reference fields.
+	 * @param primitiveBytes the bytes of primitive fields.
+	 * @return a long.
+	 */
+	private long object(int refs, int primitiveBytes){
+
+		return align(header + (long) refs * ref + primitiveBytes);
+	}
+
+	/**
+	 * Returns the size of an array.
+	 * @param elementBytes the bytes of one element.
+	 * @param length the number of elements.
+	 * @return a long.
+	 */
+	private long array(int elementBytes, long length){
+
+		return align(header + 4 + length * elementBytes);  /* the header holds the length too. */
+	}
+
+	/**
+	 * Returns the size of an instance of c, from its instance fields and those it inherits.
+	 * @param c a class.
+	 * @return a long.
+	 */
+	private long shallow(Class<?> c){
+
+		int refs = 0;
+		int primitiveBytes = 0;
+		for(Class<?> k = c; k != null; k = k.getSuperclass()) {
+			for(Field f : k.getDeclaredFields()) {
+				if(Modifier.isStatic(f.getModifiers())) {
+					continue;
+				}
+				Class<?> t = f.getType();
+				if(!t.isPrimitive()) {
+					refs++;
+				}
+				else if(t == long.class || t == double.class) {
+					primitiveBytes += 8;
+				}
+				else if(t == int.class || t == float.class) {
+					primitiveBytes += 4;
+				}
+				else if(t == char.class || t == short.class) {
+					primitiveBytes += 2;
+				}
+				else {
+					primitiveBytes += 1;
+				}
+			}
+		}
+		return object(refs, primitiveBytes);
+	}
+
+	/**
+	 * Returns the size of node, which may be a subclass of StrieNode.
+	 * @param node a StrieNode.
+	 * @return a long.
+	 */
+	private long shallowNode(StrieNode node){
+
+		if(node.getClass() != lastClass) {
+			lastClass = node.getClass();
+			lastSize = shallow(lastClass);
+		}
+		return lastSize;
+	}
+
+	/**
+	 * Returns the length a legacy table reached after n adds: it started at
+	 * LEGACY_INIT_LENGTH and doubled whenever an add found LEGACY_MAX_LOAD items per bucket.
+	 * @param n the number of children.
+	 * @return an int.
+	 */
+	private static int legacyLength(int n){
+
+		int length = LEGACY_INIT_LENGTH;
+		while(n - 1 >= LEGACY_MAX_LOAD * length) {
+			length *= 2;
+		}
+		return length;
+	}
+
+	/**
+	 * Returns how many buckets of a legacy table of the given length held a list,
+	 * from the hash of each Character key.
+	 * @param children the child table.
+	 * @param length the legacy table length.
+	 * @return an int.
+	 */
+	private static int legacyBuckets(StrieChildMap children, int length){
+
+		boolean[] used = new boolean[length];
+		int buckets = 0;
+		for(int i = 0; i < children.size(); i++) {
+			int b = children.keyAt(i) % length;  /* Character.hashCode() is the char itself. */
+			if(!used[b]) {
+				used[b] = true;
+				buckets++;
+			}
+		}
+		return buckets;
+	}
+
+	/**
+	 * Returns the number of nodes.
+	 * @return a long.
+	 */
+	public long nodes(){
+
+		return nodes;
+	}
+
+	/**
+	 * Returns the children-per-node histogram: entry n counts the nodes with n children,
+	 * the last entry counts every wider node.
+	 * @return a copy of the histogram.
+	 */
+	public int[] fanOutHistogram(){
+
+		return fanOut.clone();
+	}
+
+	/**
+	 * Returns the estimated bytes of one current component.
+	 * @param component an index into COMPONENTS.
+	 * @return a long.
+	 */
+	public long bytes(int component){
+
+		return bytes[component];
+	}
+
+	/**
+	 * Returns the estimated bytes of the current layout.
+	 * @return a long.
+	 */
+	public long totalBytes(){
+
+		return sum(bytes);
+	}
+
+	/**
+	 * Returns the estimated bytes of the same tree with the legacy child tables.
+	 * @return a long.
+	 */
+	public long legacyTotalBytes(){
+
+		return sum(legacy);
+	}
+
+	/**
+	 * Returns the estimated bytes per stored word.
+	 * @return a double, 0 if there are no words.
+	 */
+	public double bytesPerWord(){
+
+		return words == 0 ? 0 : (double) totalBytes() / words;
+	}
+
+	/**
+	 * Returns the estimated bytes per character of the stored words.
+	 * @return a double, 0 if there are no characters.
+	 */
+	public double bytesPerChar(){
+
+		return chars == 0 ? 0 : (double) totalBytes() / chars;
+	}
+
+	/**
+	 * Adds up an array.
+	 * @param a the values.
+	 * @return a long.
+	 */
+	private static long sum(long[] a){
+
+		long total = 0;
+		for(long v : a) {
+			total += v;
+		}
+		return total;
+	}
+
+	/**
+	 * Appends one line per non-empty component, then the total and the ratios.
+	 * @param s the string being built.
+	 * @param title the layout name.
+	 * @param names the component names.
+	 * @param values the component bytes.
+	 */
+	private void appendLayout(StringBuilder s, String title, String[] names, long[] values){
+
+		long total = sum(values);
+		s.append(title).append(":\n");
+		for(int i = 0; i < names.length; i++) {
+			if(values[i] != 0) {
+				s.append(String.format("  %-20s %,15d  %5.1f%%%n", names[i], values[i], 100.0 * values[i] / total));
+			}
+		}
+		s.append(String.format("  %-20s %,15d%n", "total", total));
+		if(words > 0) {
+			s.append(String.format("  bytes/word=%.1f bytes/char=%.1f%n", (double) total / words, (double) total / chars));
+		}
+	}
+
+	/**
+	 * Returns a multi-line report.
+	 * @return a String.
+	 */
+	@Override
+	public String toString(){
+
+		StringBuilder s = new StringBuilder("StrieFootprint:\n");
+		s.append("nodes=").append(nodes).append(" words=").append(words).append(" chars=").append(chars)
+			.append(" header=").append(header).append(" ref=").append(ref).append(" align=").append(alignment).append("\n");
+		HashStats.appendHistogram(s, "children", fanOut);
+		appendLayout(s, "current", COMPONENTS, bytes);
+		appendLayout(s, "legacy HashMap layout", LEGACY_COMPONENTS, legacy);
+		long now = totalBytes();
+		long before = legacyTotalBytes();
+		if(now > 0) {
+			s.append(String.format("legacy/current=%.2f", (double) before / now));
+		}
+		return s.toString().trim();
+	}
+}
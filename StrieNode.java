@@ -1,16 +1,16 @@
 
 /**
- * Uses a HashMap to hold children nodes. 
- * Keys of the map can be any Character while values are the children nodes.
+ * Uses a StrieChildMap to hold children nodes.
+ * Keys of the map can be any char while values are the children nodes.
  * Each key in the map leads to a child node of this node.
  */
 public class StrieNode{
 
-	
+
 	/**
-	 * The hashmap of pair objects.
+	 * The char keyed table of children nodes.
 	 */
-	private HashMap<Character, StrieNode> children; 
+	private StrieChildMap children;
 
 	/**
 	 * Marks the end of a word.
@@ -28,17 +28,21 @@ public class StrieNode{
 	private boolean flag;  	
 	
 	/**
-	 * Default length of the hashmap to start.
+	 * Constructor. Initializes an empty child table.
 	 */
-	private static final int INIT_MAP_LENGTH = 5; 
+	public StrieNode(){
+		
+		children = new StrieChildMap();
+	
+	}
 
 	/**
-	 * Constructor. Initializes hashmap with intial map length.
+	 * Constructor. Initializes an empty child table with room for childCapacity children.
+	 * @param childCapacity the number of children expected.
 	 */
-	public StrieNode(){
+	StrieNode(int childCapacity){
 		
-		children = new HashMap<Character, StrieNode>(INIT_MAP_LENGTH);
-	
+		children = new StrieChildMap(childCapacity);
 	}
     
 	/**
@@ -53,9 +57,9 @@ public class StrieNode{
     
 	/**
 	 * Return the storage of all children.
-	 * @return a hashmap of pair objects.
+	 * @return a StrieChildMap of children nodes.
 	 */
-	public HashMap<Character, StrieNode> getAllChildren(){
+	public StrieChildMap getAllChildren(){
 
 		return children;	
 	}
@@ -102,7 +106,7 @@ public class StrieNode{
 	 */
 	public StrieNode getChild(char ch){
 		
-		return children.getValue(ch); 
+		return children.get(ch); 
 	}
     
 	/**
@@ -113,15 +117,7 @@ public class StrieNode{
 	 */
 	public void putChild(char ch, StrieNode node){
 	
-		if(children.contains(ch)){
-			
-			children.update(ch, node);
-		}
-		
-		else {
-		
-			children.add(ch, node);
-		}
+		children.put(ch, node);
 		
 	}
 	
@@ -0,0 +1,276 @@
+/**
+ * A compiled wildcard pattern for matching words of a Strie.
+ * Supported syntax:
+ * ? matches any one character,
+ * * matches any run of characters, including none,
+ * [abc] and [a-z] match one character of the set, [!abc] or [^abc] one character outside it,
+ * and a backslash makes the next character literal.
+ *
+ * The pattern runs as a small NFA whose active positions are kept in a
+ * bit mask, so a pattern may have at most MAX_TOKENS tokens.
+ * Matching walks the strie and only follows children that keep at least
+ * one position alive; a literal position looks its child up directly.
+ */
+class StriePattern {
+
+	/**
+	 * The largest number of tokens in a pattern.
+	 */
+	static final int MAX_TOKENS = 63;
+
+	/**
+	 * Token kind: one literal character.
+	 */
+	private static final int LITERAL = 0;
+
+	/**
+	 * Token kind: any one character.
+	 */
+	private static final int ANY = 1;
+
+	/**
+	 * Token kind: any run of characters.
+	 */
+	private static final int STAR = 2;
+
+	/**
+	 * Token kind: one character of a set.
+	 */
+	private static final int CLASS = 3;
+
+	/**
+	 * Kind of each token.
+	 */
+	private final int[] kinds;
+
+	/**
+	 * The character of each LITERAL token.
+	 */
+	private final char[] literals;
+
+	/**
+	 * For each CLASS token, pairs of inclusive range bounds lo0,hi0,lo1,hi1,...
+	 */
+	private final char[][] ranges;
+
+	/**
+	 * For each CLASS token, whether the set is negated.
+	 */
+	private final boolean[] negated;
+
+	/**
+	 * The number of tokens.
+	 */
+	private final int length;
+
+	/**
+	 * Bit set when the whole pattern has been matched.
+	 */
+	private final long accept;
+
+	/**
+	 * Compiles pattern.
+	 * @param pattern the pattern text.
+	 * @throws IllegalArgumentException if the pattern is malformed or too long.
+	 */
+	StriePattern(String pattern){
+
+		int n = pattern.length();
+		int[] k = new int[n];
+		char[] lit = new char[n];
+		char[][] rng = new char[n][];
+		boolean[] neg = new boolean[n];
+		int t = 0;
+
+		for(int i = 0; i < n; i++) {
+			char c = pattern.charAt(i);
+
+			if(c == '*') {
+				if(t > 0 && k[t - 1] == STAR) {  /* a run of stars is one star. */
+					continue;
+				}
+				k[t] = STAR;
+			}
+			else if(c == '?') {
+				k[t] = ANY;
+			}
+			else if(c == '[') {
+				int close = i + 1;
+				if(close < n && (pattern.charAt(close) == '!' || pattern.charAt(close) == '^')) {
+					neg[t] = true;
+					close++;
+				}
+				int first = close;
+				StringBuilder r = new StringBuilder();
+				while(close < n && (pattern.charAt(close) != ']' || close == first)) {  /* a leading ] is literal. */
+					char lo = pattern.charAt(close);
+					char hi = lo;
+					if(close + 2 < n && pattern.charAt(close + 1) == '-' && pattern.charAt(close + 2) != ']') {
+						hi = pattern.charAt(close + 2);
+						close += 2;
+					}
+					if(hi < lo) {
+						throw new IllegalArgumentException("Bad range " + lo + "-" + hi + " in pattern: " + pattern);
+					}
+					r.append(lo).append(hi);
+					close++;
+				}
+				if(close >= n) {
+					throw new IllegalArgumentException("Unclosed [ in pattern: " + pattern);
+				}
+				k[t] = CLASS;
+				rng[t] = r.toString().toCharArray();
+				i = close;
+			}
+			else {
+				if(c == '\\') {
+					if(i + 1 >= n) {
+						throw new IllegalArgumentException("Trailing \\ in pattern: " + pattern);
+					}
+					c = pattern.charAt(++i);
+				}
+				k[t] = LITERAL;
+				lit[t] = c;
+			}
+
+			if(++t > MAX_TOKENS) {
+				throw new IllegalArgumentException("Pattern longer than " + MAX_TOKENS + " tokens: " + pattern);
+			}
+		}
+
+		kinds = java.util.Arrays.copyOf(k, t);
+		literals = java.util.Arrays.copyOf(lit, t);
+		ranges = java.util.Arrays.copyOf(rng, t);
+		negated = java.util.Arrays.copyOf(neg, t);
+		length = t;
+		accept = 1L << t;
+	}
+
+	/**
+	 * Adds the positions reachable from states without reading a character,
+	 * that is, skipping stars.
+	 * @param states a set of positions.
+	 * @return the closed set.
+	 */
+	private long closure(long states){
+
+		for(int p = 0; p < length; p++) {  /* ascending, so chained stars are followed. */
+			if((states & (1L << p)) != 0 && kinds[p] == STAR) {
+				states |= 1L << (p + 1);
+			}
+		}
+		return states;
+	}
+
+	/**
+	 * Checks whether the token at p accepts ch.
+	 * @param p a position before a non-star token.
+	 * @param ch a character.
+	 * @return a boolean value.
+	 */
+	private boolean accepts(int p, char ch){
+
+		switch(kinds[p]) {
+			case LITERAL:
+				return literals[p] == ch;
+			case ANY:
+				return true;
+			default:
+				char[] r = ranges[p];
+				boolean in = false;
+				for(int i = 0; i < r.length && !in; i += 2) {
+					in = r[i] <= ch && ch <= r[i + 1];
+				}
+				return in != negated[p];
+		}
+	}
+
+	/**
+	 * Returns the positions after reading ch from states.
+	 * @param states a closed set of positions.
+	 * @param ch a character.
+	 * @return the closed set of next positions, 0 if none.
+	 */
+	private long step(long states, char ch){
+
+		long next = 0;
+		for(int p = 0; p < length; p++) {
+			if((states & (1L << p)) == 0) {
+				continue;
+			}
+			if(kinds[p] == STAR) {
+				next |= 1L << p;
+			}
+			else if(accepts(p, ch)) {
+				next |= 1L << (p + 1);
+			}
+		}
+		return closure(next);
+	}
+
+	/**
+	 * Returns the single literal the states can read, or -1 if the states
+	 * can read more than one character.
+	 * @param states a closed set of positions.
+	 * @return a character, or -1.
+	 */
+	private int onlyLiteral(long states){
+
+		if(Long.bitCount(states & ~accept) != 1) {
+			return -1;
+		}
+		int p = Long.numberOfTrailingZeros(states & ~accept);
+		return kinds[p] == LITERAL ? literals[p] : -1;
+	}
+
+	/**
+	 * Returns the words below root that match the pattern, in ascending order.
+	 * @param root the root of a strie.
+	 * @return a SimpleList of Strings.
+	 */
+	SimpleList<String> match(StrieNode root){
+
+		SimpleList<String> strList = new SimpleList<String>();
+		matchHelper(root, closure(1L), new StringBuilder(), strList);
+		return strList;
+	}
+
+	/**
+	 * Adds the matching words below n to strList.
+	 * @param n the current node.
+	 * @param states the closed set of positions after the path to n.
+	 * @param s the characters on the path to n, restored before returning.
+	 * @param strList the string list.
+	 */
+	private void matchHelper(StrieNode n, long states, StringBuilder s, SimpleList<String> strList){
+
+		if(n.isEnd() && (states & accept) != 0 && s.length() > 0) {
+			strList.addLast(s.toString());
+		}
+		if((states & ~accept) == 0) {  /* nothing more can be read. */
+			return;
+		}
+
+		int only = onlyLiteral(states);
+		if(only >= 0) {  /* one literal: a direct lookup instead of a scan. */
+			StrieNode child = n.getChild((char) only);
+			if(child != null) {
+				s.append((char) only);
+				matchHelper(child, step(states, (char) only), s, strList);
+				s.setLength(s.length() - 1);
+			}
+			return;
+		}
+
+		StrieChildMap children = n.getAllChildren();
+		for(int i = 0; i < children.size(); i++) {
+			char ch = children.keyAt(i);
+			long next = step(states, ch);
+			if(next != 0) {
+				s.append(ch);
+				matchHelper(children.childAt(i), next, s, strList);
+				s.setLength(s.length() - 1);
+			}
+		}
+	}
+}
@@ -0,0 +1,287 @@
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * An Aho-Corasick scanner compiled from a Strie.
+ * It reports every word of the strie occurring anywhere in a text,
+ * overlapping occurrences included, in one linear pass over the text.
+ * The strie is copied into ScannerNodes with failure and output links,
+ * so later changes to the strie do not affect the scanner.
+ * A scanner is immutable and may be shared; each Matcher is single threaded.
+ */
+public class StrieScanner{
+
+	/**
+	 * The root of the automaton.
+	 */
+	private final ScannerNode root;
+
+	/**
+	 * Receives the occurrences found by a scan.
+	 */
+	public interface Listener{
+
+		/**
+		 * Called for every occurrence, in order of end position.
+		 * @param word the word found.
+		 * @param start offset of the first character of the occurrence.
+		 * @param end offset just after the last character of the occurrence.
+		 */
+		void onMatch(String word, long start, long end);
+	}
+
+	/**
+	 * An occurrence of a word in a text.
+	 */
+	public static class Hit{
+
+		/**
+		 * The word found.
+		 */
+		private final String word;
+
+		/**
+		 * Offset of the first character of the occurrence.
+		 */
+		private final long start;
+
+		/**
+		 * Constructor.
+		 * @param word the word found.
+		 * @param start offset of the first character of the occurrence.
+		 */
+		public Hit(String word, long start){
+			this.word = word;
+			this.start = start;
+		}
+
+		/**
+		 * Getter for word.
+		 * @return the word found.
+		 */
+		public String getWord(){
+			return word;
+		}
+
+		/**
+		 * Getter for start.
+		 * @return offset of the first character of the occurrence.
+		 */
+		public long getStart(){
+			return start;
+		}
+
+		/**
+		 * Returns the offset just after the last character of the occurrence.
+		 * @return a long.
+		 */
+		public long getEnd(){
+			return start + word.length();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public String toString(){
+			return "<" + word + "," + start + ">";
+		}
+	}
+
+	/**
+	 * Scanning state for text that arrives in pieces.
+	 * Occurrences that span two pieces are found as if the text were whole.
+	 */
+	public class Matcher{
+
+		/**
+		 * The current node of the automaton.
+		 */
+		private ScannerNode state = root;
+
+		/**
+		 * Number of characters fed so far.
+		 */
+		private long position;
+
+		/**
+		 * Receives the occurrences.
+		 */
+		private final Listener listener;
+
+		/**
+		 * Constructor.
+		 * @param listener receives the occurrences.
+		 */
+		Matcher(Listener listener){
+			this.listener = listener;
+		}
+
+		/**
+		 * Feeds one character.
+		 * @param ch the next character of the text.
+		 */
+		public void feed(char ch){
+
+			ScannerNode s = state;
+			ScannerNode next = s.getChild(ch);
+			while(next == null && s != root) {  /* follow failure links until ch can be taken. */
+				s = s.fail;
+				next = s.getChild(ch);
+			}
+			state = next == null ? root : next;
+			position++;
+
+			for(ScannerNode o = state.word != null ? state : state.output; o != null; o = o.output) {
+				listener.onMatch(o.word, position - o.word.length(), position);
+			}
+		}
+
+		/**
+		 * Feeds a range of characters.
+		 * @param buf the characters.
+		 * @param off the index of the first character.
+		 * @param len the number of characters.
+		 */
+		public void feed(char[] buf, int off, int len){
+
+			for(int i = off; i < off + len; i++) {
+				feed(buf[i]);
+			}
+		}
+
+		/**
+		 * Feeds a sequence of characters.
+		 * @param text the characters.
+		 */
+		public void feed(CharSequence text){
+
+			for(int i = 0; i < text.length(); i++) {
+				feed(text.charAt(i));
+			}
+		}
+
+		/**
+		 * Returns the number of characters fed so far.
+		 * @return a long.
+		 */
+		public long position(){
+
+			return position;
+		}
+	}
+
+	/**
+	 * Compiles a scanner for the words of strie.
+	 * @param strie the strie, which is not changed.
+	 */
+	public StrieScanner(Strie strie){
+
+		root = new ScannerNode();
+		copy(strie.getRoot(), root, new StringBuilder());
+		link();
+	}
+
+	/**
+	 * Copies the subtree of src into dst.
+	 * @param src a StrieNode.
+	 * @param dst the matching ScannerNode.
+	 * @param s the characters on the path to src, restored before returning.
+	 */
+	private void copy(StrieNode src, ScannerNode dst, StringBuilder s){
+
+		if(src.isEnd() && s.length() > 0) {  /* the empty word never occurs. */
+			dst.setEnd();
+			dst.word = s.toString();
+		}
+
+		StrieChildMap children = src.getAllChildren();
+		for(int i = 0; i < children.size(); i++) {
+			ScannerNode child = new ScannerNode();
+			dst.putChild(children.keyAt(i), child);
+			s.append(children.keyAt(i));
+			copy(children.childAt(i), child, s);
+			s.setLength(s.length() - 1);
+		}
+	}
+
+	/**
+	 * Sets the failure and output links in breadth-first order,
+	 * so the links of every shallower node are ready when needed.
+	 */
+	private void link(){
+
+		RingDeque<ScannerNode> q = new RingDeque<ScannerNode>(); /*This is the queue.*/
+		q.addLast(root);
+
+		while(!q.isEmpty()) {
+			ScannerNode u = q.removeFirst();
+			StrieChildMap children = u.getAllChildren();
+
+			for(int i = 0; i < children.size(); i++) {
+				char ch = children.keyAt(i);
+				ScannerNode v = (ScannerNode) children.childAt(i);
+
+				ScannerNode f = u.fail;
+				while(f != null && f.getChild(ch) == null) {
+					f = f.fail;
+				}
+				v.fail = f == null ? root : f.getChild(ch);
+				v.output = v.fail.word != null ? v.fail : v.fail.output;
+
+				q.addLast(v);
+			}
+		}
+	}
+
+	/**
+	 * Starts a scan of text that will arrive in pieces.
+	 * @param listener receives the occurrences.
+	 * @return a Matcher positioned at offset 0.
+	 */
+	public Matcher matcher(Listener listener){
+
+		return new Matcher(listener);
+	}
+
+	/**
+	 * Reports every occurrence of a word in text to listener.
+	 * @param text the text to scan.
+	 * @param listener receives the occurrences.
+	 */
+	public void scan(CharSequence text, Listener listener){
+
+		matcher(listener).feed(text);
+	}
+
+	/**
+	 * Returns every occurrence of a word in text, in order of end position.
+	 * @param text the text to scan.
+	 * @return a SimpleList of Hits.
+	 */
+	public SimpleList<Hit> scan(CharSequence text){
+
+		SimpleList<Hit> hits = new SimpleList<Hit>();
+		scan(text, (word, start, end) -> hits.addLast(new Hit(word, start)));
+		return hits;
+	}
+
+	/**
+	 * Reads in until the end and reports every occurrence of a word to listener.
+	 * The text is read in chunks and never held whole.
+	 * @param in the text to scan.
+	 * @param listener receives the occurrences.
+	 * @return the number of characters read.
+	 * @throws IOException if reading fails.
+	 */
+	public long scan(Reader in, Listener listener) throws IOException{
+
+		Matcher m = matcher(listener);
+		char[] buf = new char[8192];
+		int n;
+		while((n = in.read(buf)) != -1) {
+			m.feed(buf, 0, n);
+		}
+		return m.position();
+	}
+}
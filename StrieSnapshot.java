@@ -0,0 +1,314 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Streams a Strie to and from a compact binary snapshot.
+ * Unlike MappedStrie files, a snapshot is written in one forward pass
+ * without offsets, so it can go to any stream, and is read back into an
+ * ordinary Strie whose child tables are created at their final size.
+ *
+ * Stream layout, ints big-endian:
+ * MAGIC, VERSION and the number of words as ints, then the nodes in preorder.
+ * A node is a varint holding (number of children &lt;&lt; 1) | end marker,
+ * followed by each child in ascending order as the child character as a varint
+ * and then the child node itself.
+ * Varints are unsigned LEB128, so most characters and counts take one byte.
+ *
+ * Writing costs about as much as walking the tree, since each node is spread
+ * over its StrieNode, child table and key and child arrays; encoding adds
+ * almost nothing. It is therefore only about 1.5 times faster than writing the
+ * words as text, and the snapshot is about as large as that text. Reading
+ * gains more, as no word is rebuilt and every table is created at its final size.
+ */
+final class StrieSnapshot {
+
+	/**
+	 * Magic number at the start of every snapshot, "STRS".
+	 */
+	static final int MAGIC = 0x53545253;
+
+	/**
+	 * Version of the stream layout.
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * Size of the I/O buffer.
+	 */
+	private static final int BUFFER_LENGTH = 1 << 16;
+
+	/**
+	 * Most bytes one node header or child character can take.
+	 */
+	private static final int MAX_VARINT = 5;
+
+	/**
+	 * Not instantiable.
+	 */
+	private StrieSnapshot(){
+	}
+
+	/**
+	 * Writes the tree below root to out. The channel is not closed.
+	 * @param root the root of a Strie.
+	 * @param numWords the number of words below root.
+	 * @param out the channel to write to.
+	 * @throws IOException if writing fails.
+	 */
+	static void write(StrieNode root, int numWords, WritableByteChannel out) throws IOException{
+
+		ByteBuffer buf = ByteBuffer.allocate(BUFFER_LENGTH);
+		buf.putInt(MAGIC).putInt(VERSION).putInt(numWords);
+		putVarint(buf, header(root));
+
+		StrieNode[] nodes = new StrieNode[16];  /* the path being written, with the next child of each. */
+		int[] next = new int[16];
+		int top = 0;
+		nodes[0] = root;
+
+		while(top >= 0) {
+			StrieChildMap children = nodes[top].getAllChildren();
+			int i = next[top];
+
+			if(i >= children.size()) {  /* all children written, go back up. */
+				nodes[top] = null;
+				top--;
+				continue;
+			}
+
+			next[top] = i + 1;
+			StrieNode child = children.childAt(i);
+			if(buf.remaining() < 2 * MAX_VARINT) {
+				drain(buf, out);
+			}
+			putVarint(buf, children.keyAt(i));
+			putVarint(buf, header(child));
+
+			top++;
+			if(top == nodes.length) {
+				nodes = java.util.Arrays.copyOf(nodes, top * 2);
+				next = java.util.Arrays.copyOf(next, top * 2);
+			}
+			nodes[top] = child;
+			next[top] = 0;
+		}
+		drain(buf, out);
+	}
+
+	/**
+	 * Returns the header varint of node.
+	 * @param node a StrieNode.
+	 * @return an int.
+	 */
+	private static int header(StrieNode node){
+
+		return (node.getNumChildren() << 1) | (node.isEnd() ? 1 : 0);
+	}
+
+	/**
+	 * Appends v as an unsigned varint.
+	 * @param buf a buffer with at least MAX_VARINT bytes left.
+	 * @param v a value.
+	 */
+	private static void putVarint(ByteBuffer buf, int v){
+
+		while((v & ~0x7F) != 0) {
+			buf.put((byte) ((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+		buf.put((byte) v);
+	}
+
+	/**
+	 * Writes out everything in buf and empties it.
+	 * @param buf a buffer being filled.
+	 * @param out the channel to write to.
+	 * @throws IOException if writing fails.
+	 */
+	private static void drain(ByteBuffer buf, WritableByteChannel out) throws IOException{
+
+		buf.flip();
+		while(buf.hasRemaining()) {
+			out.write(buf);
+		}
+		buf.clear();
+	}
+
+	/**
+	 * Reads a snapshot from in and builds the Strie in one pass.
+	 * The channel is not closed; it may have been read past the end of the snapshot.
+	 * @param in the channel to read from.
+	 * @return a new Strie.
+	 * @throws IOException if reading fails or the stream is not a valid snapshot.
+	 */
+	static Strie read(ReadableByteChannel in) throws IOException{
+
+		Input r = new Input(in);
+		if(r.readInt() != MAGIC) {
+			throw new IOException("Not a strie snapshot");
+		}
+		int version = r.readInt();
+		if(version != VERSION) {
+			throw new IOException("Unsupported strie snapshot version: " + version);
+		}
+		int numWords = r.readInt();
+		if(numWords < 0) {
+			throw new IOException("Corrupt strie snapshot: " + numWords + " words");
+		}
+
+		int h = r.readVarint();
+		StrieNode root = node(h);
+		int ends = h & 1;
+		long count = 1;
+
+		StrieNode[] nodes = new StrieNode[16];  /* the path being read, with the children still to come. */
+		int[] remaining = new int[16];
+		int top = 0;
+		nodes[0] = root;
+		remaining[0] = h >>> 1;
+
+		while(top >= 0) {
+			if(remaining[top] == 0) {
+				nodes[top] = null;
+				top--;
+				continue;
+			}
+			remaining[top]--;
+
+			int ch = r.readVarint();
+			StrieChildMap siblings = nodes[top].getAllChildren();
+			if(ch < 0 || ch > Character.MAX_VALUE
+					|| (siblings.size() > 0 && siblings.keyAt(siblings.size() - 1) >= ch)) {  /* keys come in ascending order. */
+				throw new IOException("Corrupt strie snapshot: bad child character " + ch);
+			}
+			h = r.readVarint();
+			StrieNode child = node(h);
+			ends += h & 1;
+			count++;
+			siblings.put((char) ch, child);  /* largest key so far, appended without shifting. */
+
+			top++;
+			if(top == nodes.length) {
+				nodes = java.util.Arrays.copyOf(nodes, top * 2);
+				remaining = java.util.Arrays.copyOf(remaining, top * 2);
+			}
+			nodes[top] = child;
+			remaining[top] = h >>> 1;
+		}
+
+		if(ends != numWords) {
+			throw new IOException("Corrupt strie snapshot: " + ends + " words found, " + numWords + " expected");
+		}
+		return new Strie(root, numWords, count);
+	}
+
+	/**
+	 * Creates the node described by a header, with its child table presized.
+	 * The presize is capped at DIRECT_LENGTH, so a damaged header cannot force
+	 * a huge table before its children are read; a wider node grows as usual.
+	 * The flag is set on word ends without children, as Strie.insert does.
+	 * @param h a node header.
+	 * @return a StrieNode.
+	 * @throws IOException if the header is not valid.
+	 */
+	private static StrieNode node(int h) throws IOException{
+
+		int count = h >>> 1;
+		if(count > Character.MAX_VALUE + 1) {
+			throw new IOException("Corrupt strie snapshot: " + count + " children");
+		}
+		StrieNode node = new StrieNode(Math.min(count, StrieChildMap.DIRECT_LENGTH));
+		if((h & 1) != 0) {
+			node.setEnd();
+			if(count == 0) {
+				node.setFlag();
+			}
+		}
+		return node;
+	}
+
+	/**
+	 * A buffered reader of ints and varints from a channel.
+	 */
+	private static final class Input {
+
+		/**
+		 * The channel read from.
+		 */
+		private final ReadableByteChannel in;
+
+		/**
+		 * Bytes read and not yet used.
+		 */
+		private final ByteBuffer buf = ByteBuffer.allocate(BUFFER_LENGTH);
+
+		/**
+		 * Constructor.
+		 * @param in the channel to read from.
+		 */
+		Input(ReadableByteChannel in){
+
+			this.in = in;
+			buf.limit(0);
+		}
+
+		/**
+		 * Returns the next byte.
+		 * @return a byte.
+		 * @throws IOException if reading fails or the stream ends.
+		 */
+		private byte get() throws IOException{
+
+			if(!buf.hasRemaining()) {
+				buf.clear();
+				int n;
+				do {
+					n = in.read(buf);
+				} while(n == 0);
+				buf.flip();
+				if(n < 0) {
+					throw new EOFException("Truncated strie snapshot");
+				}
+			}
+			return buf.get();
+		}
+
+		/**
+		 * Returns the next big-endian int.
+		 * @return an int.
+		 * @throws IOException if reading fails or the stream ends.
+		 */
+		int readInt() throws IOException{
+
+			int v = 0;
+			for(int i = 0; i < 4; i++) {
+				v = (v << 8) | (get() & 0xFF);
+			}
+			return v;
+		}
+
+		/**
+		 * Returns the next unsigned varint.
+		 * @return an int, negative for values above Integer.MAX_VALUE.
+		 * @throws IOException if reading fails, the stream ends or the varint is too long.
+		 */
+		int readVarint() throws IOException{
+
+			int v = 0;
+			for(int shift = 0; shift < 7 * MAX_VARINT; shift += 7) {
+				byte b = get();
+				if(shift == 7 * (MAX_VARINT - 1) && (b & 0xF0) != 0) {  /* only 4 bits left of 32. */
+					break;
+				}
+				v |= (b & 0x7F) << shift;
+				if(b >= 0) {
+					return v;
+				}
+			}
+			throw new IOException("Corrupt strie snapshot: varint too long");
+		}
+	}
+}
@@ -0,0 +1,400 @@
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A Spliterator over the words or the nodes of a Strie, in preorder
+ * (ascending order for words), that can be split for parallel streams.
+ *
+ * Work still to do is a list of entries, each a whole subtree or a single
+ * node, plus at most one subtree being walked with an explicit stack.
+ * trySplit turns the walk back into entries for its untaken siblings,
+ * expands a lone subtree into its children, and hands off the first part
+ * of the entries so that both halves get about the same estimated size.
+ * A subtree is estimated by its fan-out over two levels, scaled so that
+ * the estimates add up to the size estimated for the whole spliterator.
+ * The strie must not be changed while the spliterator is in use.
+ * @param <T> String for words, StrieNode for nodes.
+ */
+class StrieSpliterator<T> implements Spliterator<T> {
+
+	/**
+	 * True to emit words, false to emit nodes.
+	 */
+	private final boolean words;
+
+	/**
+	 * Node of each entry.
+	 */
+	private StrieNode[] eNode;
+
+	/**
+	 * Characters leading to the node of each entry.
+	 */
+	private String[] ePrefix;
+
+	/**
+	 * Whether each entry is only its node rather than its whole subtree.
+	 */
+	private boolean[] eSelf;
+
+	/**
+	 * Estimated number of elements of each entry.
+	 */
+	private long[] eEst;
+
+	/**
+	 * Index of the first entry still to do.
+	 */
+	private int lo;
+
+	/**
+	 * Index just after the last entry still to do.
+	 */
+	private int hi;
+
+	/**
+	 * Nodes on the path of the walk, stack[0] is the subtree root.
+	 */
+	private StrieNode[] stack = new StrieNode[16];
+
+	/**
+	 * Index of the next child to visit for each node on the path.
+	 */
+	private int[] next = new int[16];
+
+	/**
+	 * Characters of the path of the walk, starting with the subtree prefix.
+	 */
+	private char[] buf = new char[32];
+
+	/**
+	 * Length of the subtree prefix at the start of buf.
+	 */
+	private int base;
+
+	/**
+	 * Index of the top of the stack, -1 when no walk is in progress.
+	 */
+	private int top = -1;
+
+	/**
+	 * Estimated number of elements left.
+	 */
+	private long est;
+
+	/**
+	 * Constructor for a spliterator over a list of entries.
+	 * @param words true to emit words, false to emit nodes.
+	 * @param nodes the node of each entry.
+	 * @param prefixes the characters leading to each node.
+	 * @param self whether each entry is only its node.
+	 * @param ests the estimated size of each entry.
+	 */
+	private StrieSpliterator(boolean words, StrieNode[] nodes, String[] prefixes, boolean[] self, long[] ests){
+
+		this.words = words;
+		eNode = nodes;
+		ePrefix = prefixes;
+		eSelf = self;
+		eEst = ests;
+		lo = 0;
+		hi = nodes.length;
+		for(long e : ests) {
+			est += e;
+		}
+	}
+
+	/**
+	 * Returns a spliterator over the words of strie.
+	 * @param strie a Strie.
+	 * @return a Spliterator of Strings.
+	 */
+	static Spliterator<String> words(Strie strie){
+
+		return new StrieSpliterator<String>(true, new StrieNode[] {strie.getRoot()}, new String[] {""},
+				new boolean[] {false}, new long[] {strie.numWords()});
+	}
+
+	/**
+	 * Returns a spliterator over the nodes of strie, root included.
+	 * @param strie a Strie.
+	 * @param estimate the estimated number of nodes.
+	 * @return a Spliterator of StrieNodes.
+	 */
+	static Spliterator<StrieNode> nodes(Strie strie, long estimate){
+
+		return new StrieSpliterator<StrieNode>(false, new StrieNode[] {strie.getRoot()}, new String[] {""},
+				new boolean[] {false}, new long[] {estimate});
+	}
+
+	/**
+	 * Returns the element for node n reached by the characters in buf,
+	 * or null if n produces no element.
+	 * @param n a node.
+	 * @param length the number of characters in buf leading to n.
+	 * @return a String, a StrieNode, or null.
+	 */
+	private Object element(StrieNode n, int length){
+
+		if(!words) {
+			return n;
+		}
+		return n.isEnd() && length > 0 ? new String(buf, 0, length) : null;
+	}
+
+	/**
+	 * Starts walking the subtree of n.
+	 * @param n the subtree root.
+	 * @param prefix the characters leading to n.
+	 */
+	private void startWalk(StrieNode n, String prefix){
+
+		base = prefix.length();
+		if(buf.length < base + 16) {
+			buf = new char[(base + 16) * 2];
+		}
+		prefix.getChars(0, base, buf, 0);
+		top = 0;
+		stack[0] = n;
+		next[0] = 0;
+	}
+
+	/**
+	 * Walks forward to the next element below the subtree root.
+	 * @return the element, or null once the walk is done.
+	 */
+	private Object advanceWalk(){
+
+		while(top >= 0) {
+			StrieChildMap children = stack[top].getAllChildren();
+			int i = next[top];
+
+			if(i >= children.size()) {  /* all children done, go back up. */
+				stack[top] = null;
+				top--;
+				continue;
+			}
+
+			next[top] = i + 1;
+			top++;
+			if(top == stack.length) {
+				stack = Arrays.copyOf(stack, top * 2);
+				next = Arrays.copyOf(next, top * 2);
+			}
+			if(base + top > buf.length) {
+				buf = Arrays.copyOf(buf, (base + top) * 2);
+			}
+			StrieNode child = children.childAt(i);
+			stack[top] = child;
+			next[top] = 0;
+			buf[base + top - 1] = children.keyAt(i);
+
+			Object e = element(child, base + top);
+			if(e != null) {
+				return e;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean tryAdvance(Consumer<? super T> action){
+
+		while(true) {
+			Object e = null;
+
+			if(top >= 0) {
+				e = advanceWalk();
+			}
+			else if(lo < hi) {
+				StrieNode n = eNode[lo];
+				String prefix = ePrefix[lo];
+				boolean self = eSelf[lo];
+				eNode[lo] = null;
+				lo++;
+
+				if(!self) {
+					startWalk(n, prefix);
+				}
+				e = words ? (n.isEnd() && !prefix.isEmpty() ? prefix : null) : n;
+			}
+			else {
+				return false;
+			}
+
+			if(e != null) {
+				est = Math.max(0, est - 1);
+				action.accept((T) e);
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Returns the weight used to share estimates between subtrees:
+	 * the number of nodes in the first two levels of the subtree.
+	 * @param n a node.
+	 * @return a long.
+	 */
+	private static long weight(StrieNode n){
+
+		StrieChildMap children = n.getAllChildren();
+		long w = 1 + children.size();
+		for(int i = 0; i < children.size(); i++) {
+			w += children.childAt(i).getNumChildren();
+		}
+		return w;
+	}
+
+	/**
+	 * Replaces the entries with new ones and shares est among them by weight.
+	 * @param nodes the node of each entry.
+	 * @param prefixes the characters leading to each node.
+	 * @param self whether each entry is only its node.
+	 * @param count the number of entries.
+	 */
+	private void setEntries(StrieNode[] nodes, String[] prefixes, boolean[] self, int count){
+
+		long[] w = new long[count];
+		long total = 0;
+		for(int i = 0; i < count; i++) {
+			w[i] = self[i] ? 1 : weight(nodes[i]);
+			total += w[i];
+		}
+
+		eNode = nodes;
+		ePrefix = prefixes;
+		eSelf = self;
+		eEst = new long[count];
+		for(int i = 0; i < count; i++) {
+			eEst[i] = (long) ((double) est * w[i] / total);
+		}
+		lo = 0;
+		hi = count;
+	}
+
+	/**
+	 * Turns the walk in progress, if any, into entries for its untaken
+	 * children, placed before the remaining entries.
+	 * Then, if a single subtree entry is left, expands it into its node
+	 * and its children.
+	 */
+	private void expand(){
+
+		int count = 0;
+		for(int f = 0; f <= top; f++) {
+			count += stack[f].getNumChildren() - next[f];
+		}
+		if(top < 0 && hi - lo == 1 && !eSelf[lo]) {
+			count = 1 + eNode[lo].getNumChildren();
+		}
+		else if(top < 0) {
+			return;
+		}
+		else {
+			count += hi - lo;
+		}
+
+		StrieNode[] nodes = new StrieNode[count];
+		String[] prefixes = new String[count];
+		boolean[] self = new boolean[count];
+		int k = 0;
+
+		if(top >= 0) {
+			for(int f = top; f >= 0; f--) {  /* deepest first, that is the walk order. */
+				String p = new String(buf, 0, base + f);
+				StrieChildMap children = stack[f].getAllChildren();
+				for(int i = next[f]; i < children.size(); i++) {
+					nodes[k] = children.childAt(i);
+					prefixes[k] = p + children.keyAt(i);
+					k++;
+				}
+				stack[f] = null;
+			}
+			top = -1;
+			for(int i = lo; i < hi; i++) {
+				nodes[k] = eNode[i];
+				prefixes[k] = ePrefix[i];
+				self[k] = eSelf[i];
+				k++;
+			}
+		}
+		else {
+			StrieNode n = eNode[lo];
+			String p = ePrefix[lo];
+			nodes[0] = n;
+			prefixes[0] = p;
+			self[0] = true;
+			StrieChildMap children = n.getAllChildren();
+			for(int i = 0; i < children.size(); i++) {
+				nodes[i + 1] = children.childAt(i);
+				prefixes[i + 1] = p + children.keyAt(i);
+			}
+		}
+
+		setEntries(nodes, prefixes, self, count);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Spliterator<T> trySplit(){
+
+		if(top >= 0 || hi - lo == 1) {
+			expand();
+		}
+		if(top < 0 && hi - lo == 1) {  /* the walk may have left a single subtree. */
+			expand();
+		}
+		if(hi - lo < 2) {
+			return null;
+		}
+
+		long total = 0;
+		for(int i = lo; i < hi; i++) {
+			total += eEst[i];
+		}
+
+		int mid = lo + 1;  /* first split point where the prefix reaches half the estimate. */
+		long sum = eEst[lo];
+		while(mid < hi - 1 && sum + eEst[mid] <= total / 2) {
+			sum += eEst[mid];
+			mid++;
+		}
+
+		StrieSpliterator<T> prefix = new StrieSpliterator<T>(words,
+				Arrays.copyOfRange(eNode, lo, mid), Arrays.copyOfRange(ePrefix, lo, mid),
+				Arrays.copyOfRange(eSelf, lo, mid), Arrays.copyOfRange(eEst, lo, mid));
+
+		for(int i = lo; i < mid; i++) {
+			eNode[i] = null;
+		}
+		lo = mid;
+		est = Math.max(0, est - prefix.est);
+		return prefix;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long estimateSize(){
+
+		return est;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int characteristics(){
+
+		return ORDERED | DISTINCT | NONNULL;
+	}
+}
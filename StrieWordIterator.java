@@ -0,0 +1,136 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A lazy iterator over the words below a node of a Strie, in ascending order.
+ * It walks the nodes with an explicit stack and a shared char buffer,
+ * so the only objects it allocates while iterating are the emitted Strings.
+ * The strie must not be changed while the iterator is in use.
+ */
+class StrieWordIterator implements Iterator<String> {
+
+	/**
+	 * Nodes on the current path, nodes[0] is the start node.
+	 */
+	private StrieNode[] nodes;
+
+	/**
+	 * Index of the next child to visit for each node on the path.
+	 */
+	private int[] next;
+
+	/**
+	 * Characters of the current path, starting with the prefix.
+	 */
+	private final CharRingDeque buf;
+
+	/**
+	 * Index of the top of the stack, -1 once the walk is done.
+	 */
+	private int top;
+
+	/**
+	 * The next word to return, or null if there is none.
+	 */
+	private String pending;
+
+	/**
+	 * How many more words may be returned.
+	 */
+	private long remaining;
+
+	/**
+	 * Constructor.
+	 * @param start the node reached by prefix, or null if there is none.
+	 * @param prefix the characters leading to start.
+	 * @param limit the largest number of words to return.
+	 */
+	StrieWordIterator(StrieNode start, String prefix, long limit){
+
+		nodes = new StrieNode[16];
+		next = new int[16];
+		buf = new CharRingDeque(prefix.length() + 16);
+		buf.addLast(prefix);
+		remaining = limit;
+
+		if(start == null || limit <= 0) {
+			top = -1;
+			return;
+		}
+
+		top = 0;
+		nodes[0] = start;
+		pending = start.isEnd() ? prefix : advance();
+	}
+
+	/**
+	 * Walks forward to the next node that ends a word.
+	 * @return the word, or null if the walk is done.
+	 */
+	private String advance(){
+
+		while(top >= 0) {
+			StrieNode n = nodes[top];
+			StrieChildMap children = n.getAllChildren();
+			int i = next[top];
+
+			if(i >= children.size()) {  /* all children done, go back up. */
+				nodes[top] = null;
+				if(top > 0) {  /* the start node has no character of its own. */
+					buf.removeLast();
+				}
+				top--;
+				continue;
+			}
+
+			next[top] = i + 1;
+			StrieNode child = children.childAt(i);
+			push(child, children.keyAt(i));
+			if(child.isEnd()) {
+				return buf.toString();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Pushes child, reached through ch, onto the stack.
+	 * @param child a StrieNode.
+	 * @param ch the character leading to child.
+	 */
+	private void push(StrieNode child, char ch){
+
+		top++;
+		if(top == nodes.length) {
+			nodes = java.util.Arrays.copyOf(nodes, top * 2);
+			next = java.util.Arrays.copyOf(next, top * 2);
+		}
+		nodes[top] = child;
+		next[top] = 0;
+		buf.addLast(ch);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasNext(){
+
+		return pending != null && remaining > 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String next(){
+
+		if(!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		String word = pending;
+		remaining--;
+		pending = remaining > 0 ? advance() : null;
+		return word;
+	}
+}
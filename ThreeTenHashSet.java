@@ -1,55 +1,327 @@
 // TO DO: add your implementation and JavaDocs.
 
-import java.util.Iterator;
-import java.util.Set;
-
 /**
- * Implements a set using a hash table with seperate chaining. 
- * It does this by using an array of linked lists.
+ * Implements a set using a hash table with open addressing.
+ * Items are stored directly in one array whose length is a power of two,
+ * and collisions are resolved by linear probing, so every operation probes
+ * the table once and no node is allocated per item.
+ * Removal shifts the following items of the cluster back instead of
+ * leaving tombstones.
+ *
+ * Growing is incremental: when the table must double, the old array is
+ * kept next to the new one and every later add or remove moves the next
+ * MIGRATE_STEP slots across, so no single add pays for the whole table.
+ * Until the move is done, lookups check the new array and then the old one;
+ * get and contains never change the arrays, so a table no one is changing can be read
+ * from several threads.
+ * Occupancy and displacement histograms are available from stats();
+ * lookup, probe and rehash counters are kept when HashStats.ENABLED is set.
  * This is the underlying storage table of the project.
  * @param <T> a data.
  */
 class ThreeTenHashSet<T> {
 	
 	/**
-	 * The array of Simple List objects.
+	 * Largest load used when none is given.
 	 */
-	private SimpleList<T>[] table;
+	static final double DEFAULT_MAX_LOAD = 0.75;
 	
-	   /**
-	 * The length of the array.
+	/**
+	 * Largest power of two an array can have.
 	 */
-    private int capacity;
-    
-    /**
-     * The current number of elements in the array.
-     */
-    private int size;
+	private static final int MAX_CAPACITY = 1 << 30;
 	
+	/**
+	 * Number of old slots moved to the new array by each add or remove while growing.
+	 * Anything from 2 up finishes before the new array can fill, since only adds fill it.
+	 */
+	static final int MIGRATE_STEP = 4;
 	
- /**
-     * Create a hash table where the storage is with initLength. 
-     * Initially the table is empty. 
-     * We can assume initLength is >= 2.
-     * @param initLength the intial length of the array.
-     */
-	@SuppressWarnings("unchecked")
+	/**
+	 * Marks a slot of the old array whose item was moved or removed.
+	 * It keeps probe sequences in the old array going, unlike null.
+	 */
+	private static final Object MOVED = new Object();
+	
+	/**
+	 * The array of items, null for an empty slot.
+	 */
+	private Object[] table;
+	
+	/**
+	 * The array being moved into table while growing, null otherwise.
+	 */
+	private Object[] oldTable;
+	
+	/**
+	 * Index of the next slot of oldTable to move.
+	 */
+	private int migrated;
+	
+	/**
+	 * The length of the array minus one, used to mask hash codes.
+	 */
+	private int mask;
+	
+	/**
+	 * The current number of elements in the array.
+	 */
+	private int size;
+	
+	/**
+	 * The largest fraction of the array that may be used before it doubles.
+	 */
+	private final double maxLoad;
+	
+	/**
+	 * The size at which the array doubles.
+	 */
+	private int threshold;
+	
+	/**
+	 * Number of searches, counted only when HashStats.ENABLED.
+	 */
+	private long lookups;
+	
+	/**
+	 * Number of slots looked at by searches, counted only when HashStats.ENABLED.
+	 */
+	private long probes;
+	
+	/**
+	 * Number of times the array grew, counted only when HashStats.ENABLED.
+	 */
+	private long rehashes;
+	
+	/**
+	 * Nanoseconds spent growing, counted only when HashStats.ENABLED.
+	 */
+	private long rehashNanos;
+	
+	
+	/**
+	 * Create a hash table where the storage is at least initLength,
+	 * rounded up to a power of two. Initially the table is empty.
+	 * @param initLength the intial length of the array.
+	 */
 	public ThreeTenHashSet(int initLength){
 		
-		capacity = initLength;
-		size = 0; 
-		table = (SimpleList<T>[]) new SimpleList[initLength];
+		this(initLength, DEFAULT_MAX_LOAD);
+	}
+	
+	/**
+	 * Create a hash table where the storage is at least initLength,
+	 * rounded up to a power of two, that doubles when its load would go above maxLoad.
+	 * @param initLength the intial length of the array.
+	 * @param maxLoad the largest load, above 0 and below 1.
+	 * @throws IllegalArgumentException if maxLoad is out of range.
+	 */
+	public ThreeTenHashSet(int initLength, double maxLoad){
+		
+		if(!(maxLoad > 0 && maxLoad < 1)) {
+			throw new IllegalArgumentException("Load must be above 0 and below 1: " + maxLoad);
+		}
+		this.maxLoad = maxLoad;
+		size = 0;
+		allocate(tableLength(initLength));
+	}
+	
+	/**
+	 * Returns the smallest power of two that is at least length, and at least 2.
+	 * @param length a length.
+	 * @return an int.
+	 */
+	private static int tableLength(int length){
+		
+		if(length >= MAX_CAPACITY) {
+			return MAX_CAPACITY;
+		}
+		return Math.max(2, Integer.highestOneBit(Math.max(1, length - 1)) << 1);
+	}
+	
+	/**
+	 * Replaces the array by an empty one of the given length.
+	 * @param length a power of two.
+	 */
+	private void allocate(int length){
+		
+		table = new Object[length];
+		mask = length - 1;
+		threshold = Math.min(length - 1, (int) (length * maxLoad));  /* always keep a free slot. */
+	}
+	
+	/**
+	 * Returns the home slot of value in table.
+	 * @param value a non-null data.
+	 * @return an index into the array.
+	 */
+	private int indexFor(Object value) {
+		
+		return indexFor(value, mask);
+	}
+	
+	/**
+	 * Returns the home slot of value in an array with the given mask.
+	 * The hash code goes through the murmur3 finalizer first, so every input bit
+	 * reaches the low bits the mask keeps: hash codes that differ only in a few
+	 * positions, like String codes of similar keys or multiples of a power of two,
+	 * would otherwise share runs of home slots and cluster under linear probing.
+	 * @param value a non-null data.
+	 * @param m the array length minus one.
+	 * @return an index into the array.
+	 */
+	private static int indexFor(Object value, int m) {
+		
+		int h = value.hashCode();
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		h *= 0xC2B2AE35;
+		h ^= h >>> 16;
+		return h & m;
+	}
+	
+	/**
+	 * Returns the slot holding an item equal to value, or the empty slot
+	 * that ends its probe sequence, as (-(slot) - 1).
+	 * @param value a non-null data.
+	 * @return an int.
+	 */
+	private int find(Object value) {
+		
+		int i = indexFor(value);
+		int n = 1;
+		Object cur;
+		while((cur = table[i]) != null) {  /* linear probing. */
+			if(cur.equals(value)) {
+				count(n);
+				return i;
+			}
+			i = (i + 1) & mask;
+			n++;
+		}
+		count(n);
+		return -(i + 1);
+	}
+	
+	/**
+	 * Returns the slot of oldTable holding an item equal to value, or -1.
+	 * Moved slots are skipped, the probe ends at a null slot.
+	 * Every slot below migrated is moved or null, so a probe whose home slot
+	 * is there starts at migrated instead, next to the slots just moved.
+	 * @param value a non-null data.
+	 * @return an int.
+	 */
+	private int findOld(Object value) {
+		
+		int m = oldTable.length - 1;
+		int i = Math.max(indexFor(value, m), migrated);
+		int n = 1;
+		Object cur;
+		while((cur = oldTable[i]) != null) {
+			if(cur != MOVED && cur.equals(value)) {
+				break;
+			}
+			i = (i + 1) & m;
+			n++;
+		}
+		if(HashStats.ENABLED) {  /* same search going on, no new lookup. */
+			probes += n;
+		}
+		return cur == null ? -1 : i;
+	}
+	
+	/**
+	 * Counts one search that looked at n slots, if counting is on.
+	 * @param n the number of slots.
+	 */
+	private void count(int n) {
+		
+		if(HashStats.ENABLED) {
+			lookups++;
+			probes += n;
+		}
+	}
+	
+	/**
+	 * Moves up to MIGRATE_STEP slots of oldTable into table, if growing.
+	 */
+	private void migrate() {
+		
+		if(oldTable == null) {
+			return;
+		}
+		
+		long start = HashStats.ENABLED ? System.nanoTime() : 0;
+		int end = Math.min(oldTable.length, migrated + MIGRATE_STEP);
+		for(; migrated < end; migrated++) {
+			Object cur = oldTable[migrated];
+			if(cur != null && cur != MOVED) {
+				place(cur);
+				oldTable[migrated] = MOVED;  /* not null, later old probes must go on. */
+			}
+		}
+		if(migrated == oldTable.length) {  /* done growing. */
+			oldTable = null;
+		}
+		if(HashStats.ENABLED) {
+			rehashNanos += System.nanoTime() - start;
+		}
+	}
+	
+	/**
+	 * Stores an item known to be absent from table in its first free slot.
+	 * @param value a non-null data.
+	 */
+	private void place(Object value) {
+		
+		int j = indexFor(value);
+		while(table[j] != null) {
+			j = (j + 1) & mask;
+		}
+		table[j] = value;
 	}
-    
+	
+	/**
+	 * Moves every remaining slot of oldTable, if growing.
+	 */
+	private void finishMigration() {
+		
+		while(oldTable != null) {
+			migrate();
+		}
+	}
+	
+	/**
+	 * Starts growing into an array of twice the length.
+	 * @return false if the table cannot grow.
+	 */
+	private boolean startGrowing() {
+		
+		finishMigration();
+		if(table.length >= MAX_CAPACITY) {
+			return false;
+		}
+		long start = HashStats.ENABLED ? System.nanoTime() : 0;
+		oldTable = table;
+		migrated = 0;
+		allocate(table.length * 2);
+		if(HashStats.ENABLED) {
+			rehashes++;
+			rehashNanos += System.nanoTime() - start;
+		}
+		return true;
+	}
+	
 	/**
 	 * Returns the storage length.
 	 * @return the length of the array.
 	 */
 	public int capacity() {
 
-		return capacity; 
+		return table.length; 
 	}
-    
+	
 	/**
 	 * returns the number of items in the array.
 	 * @return the number of elements in the table.
@@ -59,11 +331,20 @@ class ThreeTenHashSet<T> {
 		return size;
 	}
 	
+	/**
+	 * Returns the largest load before the array doubles.
+	 * @return a double.
+	 */
+	public double maxLoad() {
+		
+		return maxLoad;
+	}
+	
 	/**
 	 * Add an item to the set. 
 	 * Return true if you successfully add value. 
 	 * Return false if the value can not be added.
-	 * If load of table is at or above 2.0, rehash() to double the length.
+	 * If the load of the table would go above the max load, rehash() to double the length.
 	 * @param value the data.
 	 * @return a boolean value.
 	 */
@@ -73,27 +354,63 @@ class ThreeTenHashSet<T> {
 			return false;
 		}
 		
-		if(contains(value)) {
+		migrate();
+		int i = find(value);
+		if(i >= 0 || (oldTable != null && findOld(value) >= 0)) {  /* already present. */
 			return false;
 		}
-      
-		if((double)size/capacity >= 2.0) {  /* check if rehash is needed */
-			rehash(2*capacity);
-		}
 		
-		int index = Math.abs(value.hashCode() % capacity); /*calculate the index */
+		if(size >= threshold) {  /* check if growing is needed */
+			if(!startGrowing() && size >= table.length - 1) {
+				return false;
+			}
+			i = find(value);
+		}
 		
-        if(table[index] == null){
-        	SimpleList<T> list = new SimpleList<T>();
-			table[index] = list;
-        }
-      
-		table[index].addLast(value);
+		table[-(i + 1)] = value;
 		size++;
 		return true;
 		
 	}
-    
+	
+	/**
+	 * Add an item to the set unless an equal one is present, locating it once.
+	 * Return null if value was added.
+	 * Return the item already in the set if there is one, or value itself
+	 * if the table is full and cannot grow.
+	 * @param value the data.
+	 * @return the item already present, or null.
+	 */
+	@SuppressWarnings("unchecked")
+	public T addIfAbsent(T value) {
+		
+		if(value == null) {
+			return null;
+		}
+		
+		migrate();
+		int i = find(value);
+		if(i >= 0) {  /* already present. */
+			return (T) table[i];
+		}
+		int j;
+		if(oldTable != null && (j = findOld(value)) >= 0) {
+			return (T) oldTable[j];
+		}
+		
+		if(size >= threshold) {  /* check if growing is needed */
+			if(!startGrowing() && size >= table.length - 1) {
+				return value;
+			}
+			i = find(value);
+		}
+		
+		table[-(i + 1)] = value;
+		size++;
+		return null;
+		
+	}
+	
 	/**
 	 * Removes a value from the set. 
 	 * Return true if you remove the item. 
@@ -107,21 +424,46 @@ class ThreeTenHashSet<T> {
 			return false;
 		}
 		
-		if(!contains(value)){
-			return false;
-        }
-      
-		int index  = Math.abs(value.hashCode() % capacity);   /*calculate the index */
-		
-        if(table[index] == null){
-        	SimpleList<T> list = new SimpleList<T>();
-			table[index] = list;
-        }
-        
-		boolean val = table[index].remove(value);
-		
-		return val;
-
+		migrate();
+		int i = find(value);
+		if(i >= 0){
+			deleteAt(i);
+			size--;
+			return true;
+		}
+		
+		if(oldTable != null && (i = findOld(value)) >= 0) {
+			oldTable[i] = MOVED;
+			size--;
+			return true;
+		}
+		
+		return false;
+		
+	}
+	
+	/**
+	 * Empties slot i and moves later items of its cluster back into the gap
+	 * when that keeps them reachable from their home slot.
+	 * @param i an occupied slot.
+	 */
+	private void deleteAt(int i) {
+		
+		int gap = i;
+		int j = i;
+		while(true) {
+			j = (j + 1) & mask;
+			Object cur = table[j];
+			if(cur == null) {
+				break;
+			}
+			int home = indexFor(cur);
+			if(((j - home) & mask) >= ((j - gap) & mask)) {  /* home is not between gap and j. */
+				table[gap] = cur;
+				gap = j;
+			}
+		}
+		table[gap] = null;
 	}
 	
 	/**
@@ -136,13 +478,7 @@ class ThreeTenHashSet<T> {
 			return false;
 		}
 		
-		int index = Math.abs(value.hashCode() % capacity); /*calculate the index */
-      
-  		if(table[index] != null && table[index].get(value) != null) {
-			return true;
-		}
-  		
-		return false; 
+		return get(value) != null;
 	}
 	
 	
@@ -152,77 +488,121 @@ class ThreeTenHashSet<T> {
 	 * @param value the data.
 	 * @return the object the value is pointing to.
 	 */
+	@SuppressWarnings("unchecked")
 	public T get(T value) {
 		
 		if(value == null) {
 			return null;
 		}
-		if(!contains(value)) {
-			return null;
-		}
 		
-		int index = Math.abs(value.hashCode() % capacity);
-		if(table[index].get(value) != null) {
-			return table[index].get(value);
+		int i = find(value);
+		if(i >= 0) {
+			return (T) table[i];
+		}
+		if(oldTable != null && (i = findOld(value)) >= 0) {
+			return (T) oldTable[i];
 		}
-		
 		return null;
 	}
 	
 	/**
-	 * Rehash to table size newCapacity. 
+	 * Rehash to table size newCapacity, rounded up to a power of two, all at once.
 	 * If the new capacity is no greater than the current capacity, do not rehash and return false.
 	 * Otherwise, return true after resizing.
 	 * @param newCapacity the new length of the array.
 	 * @return a boolean value.
 	 */
-	@SuppressWarnings("unchecked")
 	public boolean rehash(int newCapacity) {
 		
-		
-		if(newCapacity <= this.capacity || newCapacity >= Integer.MAX_VALUE - 50) { /* check range of newCapacity. */
+		if(newCapacity <= table.length || table.length >= MAX_CAPACITY) { /* check range of newCapacity. */
 			return false;
 		}
 		
-		SimpleList<T>[] newT = (SimpleList<T>[]) new SimpleList[newCapacity]; /* Make new array. */
-		Iterator<T> iter;
-		int index = 0;
-		
-		for(int i = 0; i < capacity; i++) {
-			
-			iter = table[i].iterator();  /* Creates an iterator for each list in the array. */
-			T cur = iter.next();
-			index = Math.abs(cur.hashCode() % newCapacity);  /* Calculates the index. */
-			
-            if(newT[index] == null){
-            	SimpleList<T> list = new SimpleList<T>();
-    			newT[index] = list;
-            }
-         
-			newT[index].addLast(cur);
-			
-			while(iter.hasNext()) {
-				cur = iter.next();
-				index = Math.abs(cur.hashCode() % newCapacity);
-				
-				if(newT[index] == null){
-					SimpleList<T> list = new SimpleList<T>();
-		            newT[index] = list;
-		        }
-				newT[index].addLast(cur);
+		finishMigration();
+		long start = HashStats.ENABLED ? System.nanoTime() : 0;
+		Object[] old = table;
+		allocate(tableLength(newCapacity));
+		
+		for(int i = 0; i < old.length; i++) {
+			if(old[i] != null) {  /* items are distinct, just find a free slot. */
+				place(old[i]);
 			}
-			
-			
 		}
 		
-		table = newT;            
-		capacity = newCapacity;  
-		
+		if(HashStats.ENABLED) {
+			rehashes++;
+			rehashNanos += System.nanoTime() - start;
+		}
 		return true;
 				
 	}
 	
 
+	/**
+	 * Returns a snapshot of the table: occupancy and displacement histograms
+	 * computed now, plus the counters if HashStats.ENABLED.
+	 * Items not yet moved out of the old array count with their old displacement.
+	 * @return a HashStats.
+	 */
+	public HashStats stats() {
+		
+		int[] displacement = new int[HashStats.HISTOGRAM_LENGTH];
+		int[] clusters = new int[HashStats.HISTOGRAM_LENGTH];
+		int maxDisplacement = 0;
+		
+		for(int i = 0; i < table.length; i++) {
+			if(table[i] != null) {
+				int d = (i - indexFor(table[i])) & mask;
+				HashStats.record(displacement, d);
+				maxDisplacement = Math.max(maxDisplacement, d);
+			}
+		}
+		
+		int start = 0;
+		while(table[start] != null) {  /* start at an empty slot so no run wraps around. */
+			start++;
+		}
+		int run = 0;
+		for(int k = 1; k <= table.length; k++) {
+			if(table[(start + k) & mask] != null) {
+				run++;
+			}
+			else {
+				HashStats.record(clusters, 0);
+				if(run > 0) {
+					HashStats.record(clusters, run);
+				}
+				run = 0;
+			}
+		}
+		
+		if(oldTable != null) {
+			int m = oldTable.length - 1;
+			for(int i = migrated; i < oldTable.length; i++) {
+				Object cur = oldTable[i];
+				if(cur != null && cur != MOVED) {
+					int d = (i - indexFor(cur, m)) & m;
+					HashStats.record(displacement, d);
+					maxDisplacement = Math.max(maxDisplacement, d);
+				}
+			}
+		}
+		
+		return new HashStats(table.length, size, lookups, probes, rehashes, rehashNanos,
+				displacement, clusters, maxDisplacement);
+	}
+	
+	/**
+	 * Sets the lookup, probe and rehash counters back to zero.
+	 */
+	public void resetStats() {
+		
+		lookups = 0;
+		probes = 0;
+		rehashes = 0;
+		rehashNanos = 0;
+	}
+
 	/**
 	 * Returns a string of the contents of the hashtable.
 	 * @return a String.
@@ -238,9 +618,30 @@ class ThreeTenHashSet<T> {
 				s.append("\n");
 			}
 		}
+		appendOld(s);
 		return s.toString().trim();
 	}
 	
+	/**
+	 * Appends the items of oldTable not yet moved, if growing.
+	 * @param s the string being built.
+	 */
+	private void appendOld(StringBuilder s) {
+		
+		if(oldTable == null) {
+			return;
+		}
+		for(int i = migrated; i < oldTable.length; i++) {
+			if(oldTable[i] != null && oldTable[i] != MOVED) {
+				s.append("old ");
+				s.append(i);
+				s.append(" :");
+				s.append(oldTable[i]);
+				s.append("\n");
+			}
+		}
+	}
+	
 
 	/**
 	 * Returns a string of the contents of the hash table.
@@ -254,6 +655,7 @@ class ThreeTenHashSet<T> {
 			s.append(table[i]);
 			s.append("\n");
 		}
+		appendOld(s);
 		return s.toString().trim();
 	}
 
@@ -262,16 +664,23 @@ class ThreeTenHashSet<T> {
 	 * Return all items in set as a list.
 	 * @return a simpleList of T values.
 	 */
+	@SuppressWarnings("unchecked")
 	public SimpleList<T> allValues(){
 
 		SimpleList<T> all = new SimpleList<>();
 		for(int i = 0; i < table.length; i++) {
 			if (table[i]!=null){
-				for (T value: table[i])
-					all.addLast(value);
+				all.addLast((T) table[i]);
+			}
+		}
+		if(oldTable != null) {
+			for(int i = migrated; i < oldTable.length; i++) {
+				if(oldTable[i] != null && oldTable[i] != MOVED) {
+					all.addLast((T) oldTable[i]);
+				}
 			}
 		}
 		return all;
 	}
 
-}
\ No newline at end of file
+}
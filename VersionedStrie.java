@@ -0,0 +1,90 @@
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A mutable handle on the current version of a PersistentStrie.
+ * Writers publish a new version by compare-and-set, so concurrent writers
+ * never lose an update. Readers take snapshot() in O(1) and keep a
+ * consistent point-in-time view however long they use it, while writers
+ * carry on (multi-version concurrency control).
+ */
+public class VersionedStrie{
+
+	/**
+	 * The current version.
+	 */
+	private final AtomicReference<PersistentStrie> current;
+
+	/**
+	 * Constructor. Initially no words are in the strie.
+	 */
+	public VersionedStrie(){
+
+		current = new AtomicReference<>(PersistentStrie.empty());
+	}
+
+	/**
+	 * Returns the current version. It never changes.
+	 * @return a PersistentStrie.
+	 */
+	public PersistentStrie snapshot(){
+
+		return current.get();
+	}
+
+	/**
+	 * Returns number of words in the current version.
+	 * @return an int.
+	 */
+	public int numWords(){
+
+		return current.get().numWords();
+	}
+
+	/**
+	 * Returns true if the current version contains the given word.
+	 * @param word a String.
+	 * @return a boolean value.
+	 */
+	public boolean contains(String word){
+
+		return current.get().contains(word);
+	}
+
+	/**
+	 * Insert word into the current version.
+	 * @param word a String.
+	 * @return true if word was added; false if it was already present.
+	 */
+	public boolean insert(String word){
+
+		while(true) {
+			PersistentStrie v = current.get();
+			PersistentStrie next = v.insert(word);
+			if(next == v) {
+				return false;
+			}
+			if(current.compareAndSet(v, next)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Removes word from the current version.
+	 * @param word a String.
+	 * @return true if word was removed; false if it was not present.
+	 */
+	public boolean remove(String word){
+
+		while(true) {
+			PersistentStrie v = current.get();
+			PersistentStrie next = v.remove(word);
+			if(next == v) {
+				return false;
+			}
+			if(current.compareAndSet(v, next)) {
+				return true;
+			}
+		}
+	}
+}
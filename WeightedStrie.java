@@ -0,0 +1,331 @@
+import java.util.PriorityQueue;
+
+/**
+ * A strie where every word carries a score, for type-ahead completion.
+ * Each node caches the largest score in its subtree, so topK() can run a
+ * best-first search that only opens branches which can still beat the
+ * results found so far. Query cost depends on k and the depth of the
+ * results, not on how many words share the prefix.
+ */
+public class WeightedStrie{
+
+	/**
+	 * The root of the strie.
+	 */
+	private WeightedStrieNode root;
+
+	/**
+	 * The number of words represented by the strie.
+	 */
+	private int numWords = 0;
+
+	/**
+	 * A word with its score, as returned by topK().
+	 */
+	public static class Suggestion{
+
+		/**
+		 * The word.
+		 */
+		private final String word;
+
+		/**
+		 * The score of the word.
+		 */
+		private final long score;
+
+		/**
+		 * Constructor.
+		 * @param word the word.
+		 * @param score the score of the word.
+		 */
+		public Suggestion(String word, long score){
+			this.word = word;
+			this.score = score;
+		}
+
+		/**
+		 * Getter for word.
+		 * @return the word.
+		 */
+		public String getWord(){
+			return word;
+		}
+
+		/**
+		 * Getter for score.
+		 * @return the score of the word.
+		 */
+		public long getScore(){
+			return score;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public String toString(){
+			return "<" + word + "," + score + ">";
+		}
+	}
+
+	/**
+	 * An entry of the best-first search: either a whole subtree,
+	 * bounded by its cached maximum, or a single word with its score.
+	 */
+	private static class Candidate implements Comparable<Candidate>{
+
+		/**
+		 * The characters leading to the node.
+		 */
+		final String text;
+
+		/**
+		 * The node, whose subtree is still to be opened, or null for a word.
+		 */
+		final WeightedStrieNode node;
+
+		/**
+		 * The best score this candidate can produce.
+		 */
+		final long bound;
+
+		/**
+		 * Constructor.
+		 * @param text the characters leading to the node.
+		 * @param node the subtree to open, or null if text is a finished word.
+		 * @param bound the best score this candidate can produce.
+		 */
+		Candidate(String text, WeightedStrieNode node, long bound){
+			this.text = text;
+			this.node = node;
+			this.bound = bound;
+		}
+
+		/**
+		 * Orders by bound, highest first. On ties subtrees are opened before
+		 * any word is taken, so tied words come out in ascending order.
+		 * @param o another candidate.
+		 * @return a negative int if this comes first.
+		 */
+		@Override
+		public int compareTo(Candidate o){
+			if(bound != o.bound) {
+				return bound > o.bound ? -1 : 1;
+			}
+			if((node == null) != (o.node == null)) {
+				return node == null ? 1 : -1;
+			}
+			return text.compareTo(o.text);
+		}
+	}
+
+	/**
+	 * Constructor.
+	 * Initialize root to be an empty node. Initially no words are in the strie.
+	 */
+	public WeightedStrie(){
+
+		root = new WeightedStrieNode();
+	}
+
+	/**
+	 * Returns number of words in the strie.
+	 * @return an int.
+	 */
+	public int numWords(){
+
+		return numWords;
+	}
+
+	/**
+	 * Returns the root of the strie.
+	 * @return a WeightedStrieNode obj.
+	 */
+	public WeightedStrieNode getRoot(){
+
+		return root;
+	}
+
+	/**
+	 * Insert word with the given score, or change its score if already present.
+	 * @param word a String.
+	 * @param score the score of the word.
+	 */
+	public void insert(String word, long score){
+
+		if(word == null) {
+			return;
+		}
+
+		WeightedStrieNode[] path = new WeightedStrieNode[word.length() + 1];
+		WeightedStrieNode cur = root;
+		path[0] = cur;
+
+		for(int i = 0; i < word.length(); i++) {
+			WeightedStrieNode next = cur.getChild(word.charAt(i));
+			if(next == null) {
+				next = new WeightedStrieNode();
+				cur.putChild(word.charAt(i), next);
+			}
+			cur = next;
+			path[i + 1] = cur;
+		}
+
+		if(!cur.isEnd()) {
+			cur.setEnd();
+			numWords++;
+		}
+		cur.setScore(score);
+
+		updatePath(path, word.length());
+	}
+
+	/**
+	 * Recomputes the cached maximums from path[depth] up to the root.
+	 * @param path the nodes on a path, path[d] is reached after d characters.
+	 * @param depth the depth of the deepest node to update.
+	 */
+	private void updatePath(WeightedStrieNode[] path, int depth){
+
+		for(int d = depth; d >= 0; d--) {
+			long before = path[d].getMaxScore();
+			int beforeWords = path[d].getSubtreeWords();
+			path[d].updateMaxScore();
+			if(d < depth && path[d].getMaxScore() == before
+					&& path[d].getSubtreeWords() == beforeWords) {  /* nothing changes further up. */
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns the node reached by following word, or null if none.
+	 * @param word a String.
+	 * @return a WeightedStrieNode.
+	 */
+	private WeightedStrieNode find(String word){
+
+		WeightedStrieNode cur = root;
+		for(int i = 0; i < word.length() && cur != null; i++) {
+			cur = cur.getChild(word.charAt(i));
+		}
+		return cur;
+	}
+
+	/**
+	 * Returns true if strie contains the given word. Otherwise returns false.
+	 * @param word a String.
+	 * @return a boolean value.
+	 */
+	public boolean contains(String word){
+
+		if(word == null) {
+			return false;
+		}
+
+		WeightedStrieNode n = find(word);
+		return n != null && n.isEnd();
+	}
+
+	/**
+	 * Returns the score of the given word.
+	 * @param word a String.
+	 * @return the score, or null if the word is not present.
+	 */
+	public Long getScore(String word){
+
+		if(!contains(word)) {
+			return null;
+		}
+		return find(word).getScore();
+	}
+
+	/**
+	 * Removes the given word from the strie.
+	 * If word is not present in strie, return false.
+	 * Otherwise, remove word and return true.
+	 * @param word a String.
+	 * @return a boolean value.
+	 */
+	public boolean remove(String word){
+
+		if(word == null) {
+			return false;
+		}
+
+		WeightedStrieNode[] path = new WeightedStrieNode[word.length() + 1];
+		WeightedStrieNode cur = root;
+		path[0] = cur;
+		for(int i = 0; i < word.length(); i++) {
+			cur = cur.getChild(word.charAt(i));
+			if(cur == null) {
+				return false;
+			}
+			path[i + 1] = cur;
+		}
+
+		if(!cur.isEnd()) {
+			return false;
+		}
+
+		cur.unsetEnd();
+		numWords--;
+
+		int d = word.length();
+		while(d > 0 && !path[d].isEnd() && path[d].getNumChildren() == 0) {  /* drop the dead branch. */
+			path[d - 1].removeChild(word.charAt(d - 1));
+			d--;
+		}
+
+		updatePath(path, d);
+		return true;
+	}
+
+	/**
+	 * Returns the k highest scoring words that start with prefix,
+	 * highest first, ties in ascending word order.
+	 * @param prefix a String.
+	 * @param k the largest number of words to return.
+	 * @return a SimpleList of Suggestions, empty if no word starts with prefix.
+	 */
+	public SimpleList<Suggestion> topK(String prefix, int k){
+
+		SimpleList<Suggestion> result = new SimpleList<Suggestion>();
+		if(prefix == null || k <= 0) {
+			return result;
+		}
+
+		WeightedStrieNode start = find(prefix);
+		if(start == null || start.getSubtreeWords() == 0) {
+			return result;
+		}
+
+		PriorityQueue<Candidate> queue = new PriorityQueue<Candidate>();
+		queue.add(new Candidate(prefix, start, start.getMaxScore()));
+
+		while(!queue.isEmpty() && result.size() < k) {
+
+			Candidate c = queue.poll();
+			if(c.node == null) {  /* a word beats everything left in the queue. */
+				result.addLast(new Suggestion(c.text, c.bound));
+				continue;
+			}
+
+			if(c.node.isEnd()) {
+				queue.add(new Candidate(c.text, null, c.node.getScore()));
+			}
+
+			StrieChildMap children = c.node.getAllChildren();
+			for(int i = 0; i < children.size(); i++) {
+				WeightedStrieNode child = (WeightedStrieNode) children.childAt(i);
+				if(child.getSubtreeWords() == 0) {
+					continue;
+				}
+				queue.add(new Candidate(c.text + children.keyAt(i), child, child.getMaxScore()));
+			}
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,92 @@
+/**
+ * A StrieNode for a weighted strie.
+ * Besides the score of the word ending here, each node caches the
+ * largest score of any word in its subtree, which bounds how good a
+ * completion below this node can be, and the number of words in its subtree.
+ */
+public class WeightedStrieNode extends StrieNode{
+
+	/**
+	 * Score of the word ending at this node, meaningful only if isEnd().
+	 */
+	private long score;
+
+	/**
+	 * Largest score of any word in the subtree rooted at this node,
+	 * meaningful only if the subtree holds a word.
+	 */
+	private long maxScore = Long.MIN_VALUE;
+
+	/**
+	 * Number of words in the subtree rooted at this node.
+	 * Any score, Long.MIN_VALUE included, is a real score, so emptiness is told by this count.
+	 */
+	private int subtreeWords;
+
+	/**
+	 * Returns the score of the word ending at this node.
+	 * @return a long.
+	 */
+	public long getScore(){
+
+		return score;
+	}
+
+	/**
+	 * Sets the score of the word ending at this node.
+	 * @param score a long.
+	 */
+	public void setScore(long score){
+
+		this.score = score;
+	}
+
+	/**
+	 * Returns the largest score in the subtree rooted at this node.
+	 * @return a long, meaningful only if getSubtreeWords() is not 0.
+	 */
+	public long getMaxScore(){
+
+		return maxScore;
+	}
+
+	/**
+	 * Returns the number of words in the subtree rooted at this node.
+	 * @return an int.
+	 */
+	public int getSubtreeWords(){
+
+		return subtreeWords;
+	}
+
+	/**
+	 * Recomputes the cached subtree maximum and word count from this node's
+	 * own word and its children's cached values. Empty children are skipped.
+	 */
+	public void updateMaxScore(){
+
+		long max = isEnd() ? score : Long.MIN_VALUE;
+		int count = isEnd() ? 1 : 0;
+		StrieChildMap children = getAllChildren();
+		for(int i = 0; i < children.size(); i++) {
+			WeightedStrieNode child = (WeightedStrieNode) children.childAt(i);
+			if(child.subtreeWords > 0) {
+				max = Math.max(max, child.maxScore);
+				count += child.subtreeWords;
+			}
+		}
+		maxScore = max;
+		subtreeWords = count;
+	}
+
+	/**
+	 * Returns the child node corresponding to ch, Otherwise, returns null if no such node.
+	 * @param ch a character.
+	 * @return a WeightedStrieNode.
+	 */
+	@Override
+	public WeightedStrieNode getChild(char ch){
+
+		return (WeightedStrieNode) super.getChild(ch);
+	}
+}
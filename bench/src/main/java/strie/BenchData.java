@@ -0,0 +1,159 @@
+package strie;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Word sets for the benchmarks.
+ * "synthetic" words are random lowercase strings whose lengths follow a rough
+ * English distribution; "words" are read from the file named by the
+ * strie.words system property (default /usr/share/dict/words).
+ * Every set is distinct, shuffled with a fixed seed, and exactly the requested size:
+ * a word list that is too short is extended with numbered copies of its words.
+ */
+final class BenchData {
+
+	/**
+	 * The seed of every random choice, so runs are comparable.
+	 */
+	static final long SEED = 0x5EED;
+
+	/**
+	 * The word list used when strie.words is not set.
+	 */
+	static final String DEFAULT_WORDS = "/usr/share/dict/words";
+
+	/**
+	 * Not instantiable.
+	 */
+	private BenchData(){
+	}
+
+	/**
+	 * Returns size distinct words of the given dataset.
+	 * @param dataset "synthetic" or "words".
+	 * @param size the number of words.
+	 * @return a shuffled array of words.
+	 * @throws IllegalArgumentException if the dataset is unknown.
+	 */
+	static String[] words(String dataset, int size){
+
+		switch(dataset) {
+			case "synthetic":
+				return synthetic(size, new Random(SEED));
+			case "words":
+				return wordList(size);
+			default:
+				throw new IllegalArgumentException("Unknown dataset: " + dataset);
+		}
+	}
+
+	/**
+	 * Returns size words that are not in words, for unsuccessful lookups.
+	 * @param words the words present.
+	 * @param size the number of words.
+	 * @return an array of absent words.
+	 */
+	static String[] absent(String[] words, int size){
+
+		Set<String> present = new java.util.HashSet<>(java.util.Arrays.asList(words));
+		Random r = new Random(SEED + 1);
+		String[] out = new String[size];
+		for(int i = 0; i < size; i++) {
+			String w = words[r.nextInt(words.length)];
+			do {  /* a present word with one character changed or added. */
+				StringBuilder s = new StringBuilder(w);
+				char ch = (char) ('a' + r.nextInt(26));
+				if(s.length() > 0 && r.nextBoolean()) {
+					s.setCharAt(r.nextInt(s.length()), ch);
+				}
+				else {
+					s.append(ch);
+				}
+				w = s.toString();
+			} while(present.contains(w));
+			out[i] = w;
+		}
+		return out;
+	}
+
+	/**
+	 * Returns size distinct random lowercase words.
+	 * @param size the number of words.
+	 * @param r the source of randomness.
+	 * @return an array of words.
+	 */
+	private static String[] synthetic(int size, Random r){
+
+		Set<String> set = new LinkedHashSet<>(size * 2);
+		StringBuilder s = new StringBuilder();
+		while(set.size() < size) {
+			s.setLength(0);
+			int length = 2 + (int) Math.min(20, Math.abs(r.nextGaussian() * 3 + 6));  /* mostly 5 to 11. */
+			for(int i = 0; i < length; i++) {
+				s.append((char) ('a' + skewed(r)));
+			}
+			set.add(s.toString());
+		}
+		return set.toArray(new String[0]);
+	}
+
+	/**
+	 * Returns a letter index from 0 to 25, low indexes more likely,
+	 * so that prefixes are shared the way they are in real text.
+	 * @param r the source of randomness.
+	 * @return an int.
+	 */
+	private static int skewed(Random r){
+
+		double u = r.nextDouble();
+		return (int) (26 * u * u);
+	}
+
+	/**
+	 * Returns size distinct words from the word list file.
+	 * @param size the number of words.
+	 * @return an array of words.
+	 * @throws IllegalStateException if the file cannot be read or has no words.
+	 */
+	private static String[] wordList(int size){
+
+		Path path = Paths.get(System.getProperty("strie.words", DEFAULT_WORDS));
+		List<String> list;
+		try {
+			Set<String> set = new LinkedHashSet<>();
+			for(String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+				line = line.trim();
+				if(!line.isEmpty()) {
+					set.add(line);
+				}
+			}
+			list = new ArrayList<>(set);
+		}
+		catch(IOException e) {
+			throw new IllegalStateException("Cannot read word list " + path
+					+ ", set -Dstrie.words=<file> or use -p dataset=synthetic", e);
+		}
+		if(list.isEmpty()) {
+			throw new IllegalStateException("No words in " + path);
+		}
+
+		Collections.shuffle(list, new Random(SEED));
+		String[] out = new String[size];
+		for(int i = 0; i < size; i++) {
+			int copy = i / list.size();
+			String w = list.get(i % list.size());
+			out[i] = copy == 0 ? w : w + "#" + copy;  /* "#" is not in word lists, so still distinct. */
+		}
+		return out;
+	}
+}
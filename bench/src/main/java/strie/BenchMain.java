@@ -0,0 +1,39 @@
+package strie;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar.
+ * Takes the usual JMH command line and always adds the GC profiler,
+ * which reports the allocation rate per operation (gc.alloc.rate.norm)
+ * next to the GC counts and times.
+ */
+public final class BenchMain {
+
+	/**
+	 * Not instantiable.
+	 */
+	private BenchMain(){
+	}
+
+	/**
+	 * Runs the benchmarks selected on the command line.
+	 * @param args JMH command line arguments.
+	 * @throws RunnerException if a benchmark fails.
+	 * @throws CommandLineOptionException if the arguments are not valid.
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException{
+
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,234 @@
+package strie;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of ThreeTenHashSet and the HashMap built on it, keyed by the dataset words.
+ * Lookups are timed per call; adds and removes per pass over the dataset,
+ * starting from the smallest table so growth is included.
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HashTableBenchmark {
+
+	/**
+	 * Which words to use, see BenchData.
+	 */
+	@Param({"synthetic", "words"})
+	public String dataset;
+
+	/**
+	 * Number of keys in the tables.
+	 */
+	@Param({"1000", "100000", "1000000"})
+	public int size;
+
+	/**
+	 * The keys, in insertion order.
+	 */
+	private String[] words;
+
+	/**
+	 * Keys not in the tables, for unsuccessful lookups.
+	 */
+	private String[] missing;
+
+	/**
+	 * A set holding every key.
+	 */
+	private ThreeTenHashSet<String> set;
+
+	/**
+	 * A map from every key to its position.
+	 */
+	private HashMap<String, Integer> map;
+
+	/**
+	 * Position of the next lookup.
+	 */
+	private int next;
+
+	/**
+	 * Loads the keys and fills the tables.
+	 */
+	@Setup(Level.Trial)
+	public void setUp(){
+
+		words = BenchData.words(dataset, size);
+		missing = BenchData.absent(words, Math.min(size, 1 << 16));
+		set = fillSet();
+		map = new HashMap<>(2);
+		for(int i = 0; i < words.length; i++) {
+			map.add(words[i], i);
+		}
+	}
+
+	/**
+	 * Returns a new set, grown from the smallest table, holding every key.
+	 * @return a ThreeTenHashSet.
+	 */
+	ThreeTenHashSet<String> fillSet(){
+
+		ThreeTenHashSet<String> s = new ThreeTenHashSet<>(2);
+		for(String w : words) {
+			s.add(w);
+		}
+		return s;
+	}
+
+	/**
+	 * Returns the next position for a lookup in an array of length n.
+	 * @param n the array length.
+	 * @return an index.
+	 */
+	private int advance(int n){
+
+		int i = next % n;
+		next = i + 1;
+		return i;
+	}
+
+	/**
+	 * Adds every key to an empty set.
+	 * @return the set, as Object since the generated code lives in another package.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public Object setAddAll(){
+
+		return fillSet();
+	}
+
+	/**
+	 * Looks up one present key in the set.
+	 * @return the result.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public boolean setContainsHit(){
+
+		return set.contains(words[advance(words.length)]);
+	}
+
+	/**
+	 * Looks up one absent key in the set.
+	 * @return the result.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public boolean setContainsMiss(){
+
+		return set.contains(missing[advance(missing.length)]);
+	}
+
+	/**
+	 * Removes every key from a full set.
+	 * @param e holds the set to empty.
+	 * @param bh consumes the results.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void setRemoveAll(ToEmpty e, Blackhole bh){
+
+		for(String w : words) {
+			bh.consume(e.set.remove(w));
+		}
+	}
+
+	/**
+	 * Maps every key in an empty map.
+	 * @return the map, as Object since the generated code lives in another package.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public Object mapAddAll(){
+
+		HashMap<String, Integer> m = new HashMap<>(2);
+		for(int i = 0; i < words.length; i++) {
+			m.add(words[i], i);
+		}
+		return m;
+	}
+
+	/**
+	 * Gets the value of one present key.
+	 * @return the value.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public Integer mapGetHit(){
+
+		return map.get(words[advance(words.length)]);
+	}
+
+	/**
+	 * Gets the value of one absent key.
+	 * @return null.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public Integer mapGetMiss(){
+
+		return map.get(missing[advance(missing.length)]);
+	}
+
+	/**
+	 * Replaces the value of one present key.
+	 * @return the old value.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public Integer mapReplace(){
+
+		int i = advance(words.length);
+		return map.replace(words[i], i);
+	}
+
+	/**
+	 * The set setRemoveAll empties, refilled before every call.
+	 * A state of its own, so the per-invocation setup and its timestamps
+	 * only run around setRemoveAll and not around the single lookups.
+	 */
+	@State(Scope.Thread)
+	public static class ToEmpty {
+
+		/**
+		 * A set holding every key.
+		 */
+		ThreeTenHashSet<String> set;
+
+		/**
+		 * Refills the set.
+		 * @param b the benchmark, for its keys.
+		 */
+		@Setup(Level.Invocation)
+		public void refill(HashTableBenchmark b){
+
+			set = b.fillSet();
+		}
+	}
+}
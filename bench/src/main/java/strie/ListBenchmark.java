@@ -0,0 +1,75 @@
+package strie;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks SimpleList used as a FIFO queue against RingDeque,
+ * the way the breadth-first traversals use them.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ListBenchmark {
+
+	/**
+	 * Number of items going through the queue.
+	 */
+	@Param({"1000", "100000"})
+	public int size;
+
+	/**
+	 * Queues size items while keeping a short backlog, like a traversal of a narrow tree.
+	 * @return the sum of the items, so nothing is optimized away.
+	 */
+	@Benchmark
+	public long simpleListQueue(){
+
+		SimpleList<Integer> q = new SimpleList<>();
+		long sum = 0;
+		for(int i = 0; i < size; i++) {
+			q.addLast(i);
+			if((i & 3) != 0) {
+				sum += q.removeFirst();
+			}
+		}
+		while(q.size() > 0) {
+			sum += q.removeFirst();
+		}
+		return sum;
+	}
+
+	/**
+	 * Same work as simpleListQueue with a RingDeque.
+	 * @return the sum of the items.
+	 */
+	@Benchmark
+	public long ringDequeQueue(){
+
+		RingDeque<Integer> q = new RingDeque<>();
+		long sum = 0;
+		for(int i = 0; i < size; i++) {
+			q.addLast(i);
+			if((i & 3) != 0) {
+				sum += q.removeFirst();
+			}
+		}
+		while(!q.isEmpty()) {
+			sum += q.removeFirst();
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,190 @@
+package strie;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the Strie operations.
+ * Single lookups (contains) are timed per call; whole-tree operations
+ * (building, removing everything, listing, traversal) are timed per pass
+ * over the dataset, so their scores grow with size.
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StrieBenchmark {
+
+	/**
+	 * Which words to use, see BenchData.
+	 */
+	@Param({"synthetic", "words"})
+	public String dataset;
+
+	/**
+	 * Number of words in the Strie.
+	 */
+	@Param({"1000", "100000", "1000000"})
+	public int size;
+
+	/**
+	 * The words, in insertion order.
+	 */
+	private String[] words;
+
+	/**
+	 * Words not in the Strie, for unsuccessful lookups.
+	 */
+	private String[] missing;
+
+	/**
+	 * A Strie holding every word.
+	 */
+	private Strie full;
+
+	/**
+	 * Position of the next lookup.
+	 */
+	private int next;
+
+	/**
+	 * Loads the words and builds the full Strie.
+	 */
+	@Setup(Level.Trial)
+	public void setUp(){
+
+		words = BenchData.words(dataset, size);
+		missing = BenchData.absent(words, Math.min(size, 1 << 16));
+		full = build();
+	}
+
+	/**
+	 * Returns a new Strie holding every word.
+	 * @return a Strie.
+	 */
+	Strie build(){
+
+		Strie s = new Strie();
+		for(String w : words) {
+			s.insert(w);
+		}
+		return s;
+	}
+
+	/**
+	 * Inserts every word into an empty Strie.
+	 * @return the Strie, as Object since the generated code lives in another package.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public Object insertAll(){
+
+		return build();
+	}
+
+	/**
+	 * Looks up one present word.
+	 * @return the result.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public boolean containsHit(){
+
+		int i = next;
+		next = i + 1 == words.length ? 0 : i + 1;
+		return full.contains(words[i]);
+	}
+
+	/**
+	 * Looks up one absent word.
+	 * @return the result.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public boolean containsMiss(){
+
+		int i = next % missing.length;
+		next = i + 1;
+		return full.contains(missing[i]);
+	}
+
+	/**
+	 * Removes every word, leaving an empty Strie.
+	 * @param e holds the Strie to empty.
+	 * @param bh consumes the results.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void removeAll(ToEmpty e, Blackhole bh){
+
+		for(String w : words) {
+			bh.consume(e.strie.remove(w));
+		}
+	}
+
+	/**
+	 * Lists every word in order.
+	 * @return the list, as Object since the generated code lives in another package.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public Object getStrieWords(){
+
+		return full.getStrieWords();
+	}
+
+	/**
+	 * Dumps every character breadth first.
+	 * @return the dump.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public String levelOrderTraversal(){
+
+		return full.levelOrderTraversal();
+	}
+
+	/**
+	 * The Strie removeAll empties, rebuilt before every call.
+	 * A state of its own, so the per-invocation setup and its timestamps
+	 * only run around removeAll and not around the single lookups.
+	 */
+	@State(Scope.Thread)
+	public static class ToEmpty {
+
+		/**
+		 * A Strie holding every word.
+		 */
+		Strie strie;
+
+		/**
+		 * Rebuilds the Strie.
+		 * Per invocation, which is fine since one invocation removes size words.
+		 * @param b the benchmark, for its words.
+		 */
+		@Setup(Level.Invocation)
+		public void refill(StrieBenchmark b){
+
+			strie = b.build();
+		}
+	}
+}
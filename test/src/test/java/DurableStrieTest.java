@@ -0,0 +1,266 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of DurableStrie recovery: reopening after close and after a crash,
+ * torn and damaged log tails, checkpoints, replay over a checkpoint, and
+ * group commit from several threads.
+ */
+class DurableStrieTest {
+
+	/**
+	 * A fresh directory for each test.
+	 */
+	@TempDir
+	Path dir;
+
+	/**
+	 * Returns the words of s in order.
+	 * @param s a DurableStrie.
+	 * @return a list.
+	 */
+	private static List<String> words(DurableStrie s){
+
+		List<String> words = new ArrayList<>();
+		for(Iterator<String> it = s.getStrieWords().iterator(); it.hasNext();) {
+			words.add(it.next());
+		}
+		return words;
+	}
+
+	/**
+	 * Applies random inserts and removes to s and to a reference set.
+	 * @param s the strie under test.
+	 * @param expected the reference set.
+	 * @param random the source of changes.
+	 * @param n the number of changes.
+	 * @throws IOException if the log cannot be written.
+	 */
+	private static void randomChanges(DurableStrie s, TreeSet<String> expected, Random random, int n) throws IOException{
+
+		for(int i = 0; i < n; i++) {
+			String w = Integer.toString(random.nextInt(500), 7);
+			if(random.nextInt(3) == 0) {
+				assertEquals(expected.remove(w), s.remove(w));
+			}
+			else {
+				assertEquals(expected.add(w), s.insert(w));
+			}
+		}
+	}
+
+	/**
+	 * Returns the size of the log file.
+	 * @return a length in bytes.
+	 * @throws IOException if the file cannot be read.
+	 */
+	private long logSize() throws IOException{
+
+		return Files.size(dir.resolve(DurableStrie.LOG));
+	}
+
+	/**
+	 * Changes survive a close and reopen, from the log alone.
+	 * @throws IOException if the files cannot be used.
+	 */
+	@Test
+	void reopenReplaysLog() throws IOException{
+
+		TreeSet<String> expected = new TreeSet<>();
+		try(DurableStrie s = new DurableStrie(dir)) {
+			randomChanges(s, expected, new Random(1), 2000);
+		}
+		assertFalse(Files.exists(dir.resolve(DurableStrie.CHECKPOINT)));
+		try(DurableStrie s = new DurableStrie(dir)) {
+			assertEquals(new ArrayList<>(expected), words(s));
+			assertEquals(expected.size(), s.numWords());
+		}
+	}
+
+	/**
+	 * A change is on disk once insert returns, even if the strie is never closed.
+	 * @throws IOException if the files cannot be used.
+	 */
+	@Test
+	void committedBeforeClose() throws IOException{
+
+		DurableStrie first = new DurableStrie(dir);
+		assertTrue(first.insert("kept"));
+		assertFalse(first.insert("kept"));
+		assertFalse(first.insert(""));
+		try(DurableStrie second = new DurableStrie(dir)) {
+			assertTrue(second.contains("kept"));
+			assertEquals(1, second.numWords());
+		}
+		first.close();
+	}
+
+	/**
+	 * A torn last record is dropped, and later changes are appended after the good ones.
+	 * @throws IOException if the files cannot be used.
+	 */
+	@Test
+	void tornTailIsTruncated() throws IOException{
+
+		try(DurableStrie s = new DurableStrie(dir)) {
+			s.insert("alpha");
+			s.insert("beta");
+		}
+		long good = logSize();
+		byte[] torn = {1, 0, 0, 0, 5, 0, 'g', 0};  /* an insert of five chars, cut short. */
+		Files.write(dir.resolve(DurableStrie.LOG), torn, StandardOpenOption.APPEND);
+
+		try(DurableStrie s = new DurableStrie(dir)) {
+			assertEquals(Arrays.asList("alpha", "beta"), words(s));
+			assertEquals(good, logSize());
+			s.insert("gamma");
+		}
+		try(DurableStrie s = new DurableStrie(dir)) {
+			assertEquals(Arrays.asList("alpha", "beta", "gamma"), words(s));
+		}
+	}
+
+	/**
+	 * Replay stops at a record whose checksum does not match.
+	 * @throws IOException if the files cannot be used.
+	 */
+	@Test
+	void damagedRecordEndsReplay() throws IOException{
+
+		String[] words = {"one", "two", "three"};
+		long[] ends = new long[words.length];
+		try(DurableStrie s = new DurableStrie(dir)) {
+			for(int i = 0; i < words.length; i++) {
+				s.insert(words[i]);
+				ends[i] = logSize();
+			}
+		}
+		Path log = dir.resolve(DurableStrie.LOG);
+		byte[] bytes = Files.readAllBytes(log);
+		bytes[(int) ends[0] + 6] ^= 1;  /* a char of "two". */
+		Files.write(log, bytes);
+
+		try(DurableStrie s = new DurableStrie(dir)) {
+			assertEquals(List.of("one"), words(s));
+			assertEquals(ends[0], logSize());
+		}
+	}
+
+	/**
+	 * Checkpoints empty the log, are taken automatically past the size limit,
+	 * and are read back on open.
+	 * @throws IOException if the files cannot be used.
+	 */
+	@Test
+	void checkpoints() throws IOException{
+
+		TreeSet<String> expected = new TreeSet<>();
+		Random random = new Random(2);
+		try(DurableStrie s = new DurableStrie(dir, 4096)) {
+			randomChanges(s, expected, random, 3000);
+			assertTrue(Files.exists(dir.resolve(DurableStrie.CHECKPOINT)));
+			assertTrue(logSize() < 4096 + 64);
+			s.checkpoint();
+			assertEquals(0, logSize());
+			randomChanges(s, expected, random, 50);
+		}
+		try(DurableStrie s = new DurableStrie(dir)) {
+			assertEquals(new ArrayList<>(expected), words(s));
+		}
+		assertThrows(IllegalArgumentException.class, () -> new DurableStrie(dir, 0));
+	}
+
+	/**
+	 * Replaying log records already in the checkpoint, as after a crash between
+	 * the rename and the truncation, gives the same strie.
+	 * @throws IOException if the files cannot be used.
+	 */
+	@Test
+	void replayOverCheckpointIsIdempotent() throws IOException{
+
+		TreeSet<String> expected = new TreeSet<>();
+		Path log = dir.resolve(DurableStrie.LOG);
+		byte[] stale;
+		try(DurableStrie s = new DurableStrie(dir)) {
+			randomChanges(s, expected, new Random(3), 1500);
+			stale = Files.readAllBytes(log);
+			s.checkpoint();
+		}
+		Files.write(log, stale);
+		try(DurableStrie s = new DurableStrie(dir)) {
+			assertEquals(new ArrayList<>(expected), words(s));
+		}
+	}
+
+	/**
+	 * Writers from several threads share syncs and every change is recovered.
+	 * @throws Exception if a writer fails.
+	 */
+	@Test
+	void groupCommitFromThreads() throws Exception{
+
+		int threads = 4;
+		int each = 300;
+		AtomicInteger failures = new AtomicInteger();
+		try(DurableStrie s = new DurableStrie(dir, 8192)) {
+			Thread[] writers = new Thread[threads];
+			for(int t = 0; t < threads; t++) {
+				String prefix = "t" + t + "-";
+				writers[t] = new Thread(() -> {
+					try {
+						for(int i = 0; i < each; i++) {
+							if(!s.insert(prefix + i)) {
+								failures.incrementAndGet();
+							}
+						}
+					}
+					catch(IOException | RuntimeException e) {
+						failures.incrementAndGet();
+					}
+				});
+				writers[t].start();
+			}
+			for(Thread t : writers) {
+				t.join();
+			}
+		}
+		assertEquals(0, failures.get());
+		try(DurableStrie s = new DurableStrie(dir)) {
+			assertEquals(threads * each, s.numWords());
+			assertTrue(s.contains("t3-299"));
+		}
+	}
+
+	/**
+	 * No change is accepted after close, and closing twice is harmless.
+	 * @throws IOException if the files cannot be used.
+	 */
+	@Test
+	void closedRejectsChanges() throws IOException{
+
+		DurableStrie s = new DurableStrie(dir);
+		s.insert("word");
+		s.close();
+		s.close();
+		assertThrows(IOException.class, () -> s.insert("more"));
+		assertThrows(IOException.class, () -> s.remove("word"));
+		assertTrue(s.contains("word"));
+	}
+}
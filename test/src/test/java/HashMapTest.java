@@ -0,0 +1,138 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the single-lookup HashMap entry points: get, putIfAbsent,
+ * computeIfAbsent and replace, against java.util.HashMap and from several threads.
+ */
+class HashMapTest {
+
+	/**
+	 * computeIfAbsent calls fn only for absent keys and adds nothing when fn returns null.
+	 */
+	@Test
+	void computeIfAbsentCallsOnce(){
+
+		HashMap<String, Integer> map = new HashMap<>(2);
+		AtomicInteger calls = new AtomicInteger();
+		assertEquals(3, map.computeIfAbsent("abc", k -> { calls.incrementAndGet(); return k.length(); }));
+		assertEquals(3, map.computeIfAbsent("abc", k -> { calls.incrementAndGet(); return 99; }));
+		assertEquals(1, calls.get());
+		assertNull(map.computeIfAbsent("none", k -> null));
+		assertFalse(map.contains("none"));
+		assertEquals(1, map.size());
+		assertNull(map.computeIfAbsent(null, k -> 1));
+	}
+
+	/**
+	 * putIfAbsent and replace return the previous value and leave the size right.
+	 */
+	@Test
+	void putIfAbsentAndReplace(){
+
+		HashMap<String, Integer> map = new HashMap<>(2);
+		assertNull(map.putIfAbsent("a", 1));
+		assertEquals(1, map.putIfAbsent("a", 2));
+		assertEquals(1, map.get("a"));
+		assertNull(map.replace("b", 5));
+		assertFalse(map.contains("b"));
+		assertEquals(1, map.replace("a", 7));
+		assertEquals(7, map.get("a"));
+		assertTrue(map.has("a", 7));
+		assertTrue(map.update("a", 8));
+		assertFalse(map.update("b", 8));
+		assertEquals(1, map.size());
+		assertNull(map.putIfAbsent("c", null));
+		assertNull(map.get(null));
+	}
+
+	/**
+	 * Random calls of every entry point agree with java.util.HashMap.
+	 */
+	@Test
+	void differentialAgainstJavaUtil(){
+
+		Random random = new Random(11);
+		for(int round = 0; round < 20; round++) {
+			HashMap<Integer, Integer> map = new HashMap<>(2);
+			Map<Integer, Integer> expected = new java.util.HashMap<>();
+			int range = 10 + random.nextInt(3000);
+			for(int step = 0; step < 20000; step++) {
+				Integer k = random.nextInt(range);
+				Integer v = random.nextInt(100);
+				switch(random.nextInt(7)) {
+				case 0:
+					assertEquals(expected.putIfAbsent(k, v), map.putIfAbsent(k, v));
+					break;
+				case 1:
+					assertEquals(expected.computeIfAbsent(k, x -> v), map.computeIfAbsent(k, x -> v));
+					break;
+				case 2:
+					assertEquals(expected.replace(k, v), map.replace(k, v));
+					break;
+				case 3:
+					assertEquals(expected.remove(k) != null, map.remove(k));
+					break;
+				case 4:
+					assertEquals(!expected.containsKey(k), map.add(k, v));
+					expected.putIfAbsent(k, v);
+					break;
+				default:
+					assertEquals(expected.get(k), map.get(k));
+					assertEquals(expected.containsKey(k), map.contains(k));
+				}
+				assertEquals(expected.size(), map.size());
+			}
+			for(Map.Entry<Integer, Integer> e : expected.entrySet()) {
+				assertEquals(e.getValue(), map.get(e.getKey()));
+			}
+		}
+	}
+
+	/**
+	 * Several threads can call get and contains on a map no one is changing.
+	 * @throws InterruptedException if interrupted.
+	 */
+	@Test
+	void concurrentReads() throws InterruptedException{
+
+		HashMap<Integer, Integer> map = new HashMap<>(2);
+		int n = 100000;
+		for(int i = 0; i < n; i++) {
+			map.add(i, 3 * i);
+		}
+		AtomicInteger wrong = new AtomicInteger();
+		Thread[] threads = new Thread[4];
+		for(int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				try {
+					for(int round = 0; round < 5; round++) {
+						for(int i = 0; i < n; i++) {
+							Integer v = map.get(i);
+							if(v == null || v != 3 * i || map.contains(-i - 1)
+									|| map.computeIfAbsent(i, k -> -1) != 3 * i) {
+								wrong.incrementAndGet();
+							}
+						}
+					}
+				}
+				catch(RuntimeException e) {
+					wrong.incrementAndGet();
+				}
+			});
+			threads[t].start();
+		}
+		for(Thread t : threads) {
+			t.join();
+		}
+		assertEquals(0, wrong.get());
+	}
+}
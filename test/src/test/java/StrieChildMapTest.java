@@ -0,0 +1,171 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the StrieChildMap layouts: linear, binary search and direct index,
+ * the moves between them, and agreement with a TreeMap under random changes.
+ */
+class StrieChildMapTest {
+
+	/**
+	 * Checks that the table holds exactly the entries of the reference, in key order.
+	 * @param expected the reference map.
+	 * @param map the table under test.
+	 */
+	private static void assertSameEntries(TreeMap<Character, StrieNode> expected, StrieChildMap map){
+
+		assertEquals(expected.size(), map.size());
+		int i = 0;
+		for(Map.Entry<Character, StrieNode> e : expected.entrySet()) {
+			assertEquals((char) e.getKey(), map.keyAt(i));
+			assertSame(e.getValue(), map.childAt(i));
+			assertSame(e.getValue(), map.get(e.getKey()));
+			i++;
+		}
+	}
+
+	/**
+	 * Small tables grow through lengths 1, 2 and 4 and are scanned without a direct index.
+	 */
+	@Test
+	void smallTablesAreExactlySized(){
+
+		StrieChildMap map = new StrieChildMap();
+		assertEquals(0, map.capacity());
+		int[] lengths = {1, 2, 4, 4};
+		for(int i = 0; i < lengths.length; i++) {
+			assertTrue(map.put((char) ('d' - i), new StrieNode()));
+			assertEquals(lengths[i], map.capacity());
+		}
+		assertFalse(map.isDirect());
+		assertEquals("abcd", "" + map.keyAt(0) + map.keyAt(1) + map.keyAt(2) + map.keyAt(3));
+	}
+
+	/**
+	 * The direct index appears at DIRECT_MIN children and stays until fewer than DIRECT_DROP remain.
+	 */
+	@Test
+	void directIndexHasHysteresis(){
+
+		StrieChildMap map = new StrieChildMap();
+		for(int i = 0; i < StrieChildMap.DIRECT_MIN - 1; i++) {
+			map.put((char) (i * 3), new StrieNode());
+		}
+		assertFalse(map.isDirect());
+		map.put((char) 1000, new StrieNode());
+		assertTrue(map.isDirect());
+
+		for(int i = 0; map.size() > StrieChildMap.DIRECT_DROP; i++) {
+			assertTrue(map.isDirect());
+			assertTrue(map.remove((char) (i * 3)));
+		}
+		assertTrue(map.isDirect());
+		map.remove((char) 1000);
+		assertFalse(map.isDirect());
+		assertNull(map.get((char) 0));
+		assertTrue(map.contains((char) ((StrieChildMap.DIRECT_MIN - 2) * 3)));
+	}
+
+	/**
+	 * Keys at and above DIRECT_LENGTH are found next to direct-indexed ones.
+	 */
+	@Test
+	void wideCharsInDirectTable(){
+
+		TreeMap<Character, StrieNode> expected = new TreeMap<>();
+		StrieChildMap map = new StrieChildMap();
+		for(int i = 0; i < 200; i++) {
+			char ch = (char) (i < 100 ? i : 0x4E00 + i);
+			StrieNode node = new StrieNode();
+			expected.put(ch, node);
+			map.put(ch, node);
+		}
+		assertTrue(map.isDirect());
+		assertSameEntries(expected, map);
+		assertNull(map.get((char) (StrieChildMap.DIRECT_LENGTH - 1)));
+		assertNull(map.get(Character.MAX_VALUE));
+	}
+
+	/**
+	 * Replacing a child keeps the size and updates the direct index too.
+	 */
+	@Test
+	void putReplaces(){
+
+		StrieChildMap map = new StrieChildMap();
+		for(int i = 0; i < StrieChildMap.DIRECT_MIN; i++) {
+			map.put((char) ('0' + i), new StrieNode());
+		}
+		StrieNode node = new StrieNode();
+		assertFalse(map.put('5', node));
+		assertEquals(StrieChildMap.DIRECT_MIN, map.size());
+		assertSame(node, map.get('5'));
+		assertFalse(map.put('6', null));
+	}
+
+	/**
+	 * A presized table is filled without growing, and a mostly empty one shrinks.
+	 */
+	@Test
+	void presizedAndShrinking(){
+
+		StrieChildMap map = new StrieChildMap(100);
+		for(int i = 0; i < 100; i++) {
+			map.put((char) i, new StrieNode());
+		}
+		assertEquals(100, map.capacity());
+
+		for(int i = 99; i >= 10; i--) {
+			map.remove((char) i);
+		}
+		assertTrue(map.capacity() <= 40);
+		assertTrue(map.capacity() >= map.size());
+
+		for(int i = 0; i < 10; i++) {
+			map.remove((char) i);
+		}
+		assertEquals(0, map.size());
+		assertEquals(0, map.capacity());
+		assertFalse(map.remove('a'));
+	}
+
+	/**
+	 * Random puts and removes over ranges that cross every layout agree with a TreeMap.
+	 */
+	@Test
+	void differentialAgainstTreeMap(){
+
+		Random random = new Random(1);
+		int[] ranges = {3, 8, 60, 300, Character.MAX_VALUE + 1};
+		for(int range : ranges) {
+			TreeMap<Character, StrieNode> expected = new TreeMap<>();
+			StrieChildMap map = new StrieChildMap();
+			for(int step = 0; step < 20000; step++) {
+				char ch = (char) random.nextInt(range);
+				if(random.nextInt(5) < 3) {
+					StrieNode node = new StrieNode();
+					assertEquals(!expected.containsKey(ch), map.put(ch, node));
+					expected.put(ch, node);
+				}
+				else {
+					assertEquals(expected.remove(ch) != null, map.remove(ch));
+				}
+				assertEquals(expected.containsKey(ch), map.contains(ch));
+				assertSame(expected.get(ch), map.get(ch));
+				if(step % 500 == 0) {
+					assertSameEntries(expected, map);
+				}
+			}
+			assertSameEntries(expected, map);
+		}
+	}
+}
@@ -0,0 +1,235 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the streaming snapshot: Strie.writeTo and Strie.readFrom round-trips
+ * and the rejection of damaged or truncated streams.
+ */
+class StrieSnapshotTest {
+
+	/**
+	 * Returns the snapshot bytes of s.
+	 * @param s a Strie.
+	 * @return the bytes written by writeTo.
+	 * @throws IOException if writing fails.
+	 */
+	private static byte[] snapshot(Strie s) throws IOException{
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		s.writeTo(out);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Reads a Strie back from snapshot bytes.
+	 * @param bytes a snapshot.
+	 * @return the Strie read.
+	 * @throws IOException if the snapshot is not valid.
+	 */
+	private static Strie read(byte[] bytes) throws IOException{
+
+		return Strie.readFrom(new ByteArrayInputStream(bytes));
+	}
+
+	/**
+	 * Returns the words of s in order.
+	 * @param s a Strie.
+	 * @return a list.
+	 */
+	private static List<String> words(Strie s){
+
+		return s.stream().collect(Collectors.toList());
+	}
+
+	/**
+	 * Returns a Strie of random words over the given alphabet.
+	 * @param random the source of words.
+	 * @param n the number of words to insert.
+	 * @param alphabet the characters used.
+	 * @return a Strie.
+	 */
+	private static Strie randomStrie(Random random, int n, String alphabet){
+
+		Strie s = new Strie();
+		for(int i = 0; i < n; i++) {
+			StringBuilder w = new StringBuilder();
+			int length = 1 + random.nextInt(12);
+			for(int j = 0; j < length; j++) {
+				w.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			s.insert(w.toString());
+		}
+		return s;
+	}
+
+	/**
+	 * Random tries, narrow and wide, come back with the same words and counts.
+	 * @throws IOException if a snapshot cannot be read.
+	 */
+	@Test
+	void roundTrip() throws IOException{
+
+		Random random = new Random(5);
+		StringBuilder wide = new StringBuilder();
+		for(char ch = 'A'; ch < 'A' + 60; ch++) {
+			wide.append(ch);
+		}
+		wide.append("\u00e9\u4e2d\u6587\uffff");
+		String[] alphabets = {"ab", "abcdefghij", wide.toString()};
+		for(String alphabet : alphabets) {
+			for(int n : new int[] {1, 50, 5000}) {
+				Strie s = randomStrie(random, n, alphabet);
+				Strie copy = read(snapshot(s));
+				assertEquals(words(s), words(copy));
+				assertEquals(s.numWords(), copy.numWords());
+				assertEquals(s.numNodes(), copy.numNodes());
+				assertArrayEquals(snapshot(s), snapshot(copy));
+			}
+		}
+	}
+
+	/**
+	 * A Strie read back can be changed like the original.
+	 * @throws IOException if the snapshot cannot be read.
+	 */
+	@Test
+	void readCopyIsUsable() throws IOException{
+
+		Strie s = new Strie();
+		for(String w : new String[] {"car", "cart", "care", "dog"}) {
+			s.insert(w);
+		}
+		Strie copy = read(snapshot(s));
+		for(Strie t : new Strie[] {s, copy}) {
+			t.insert("dogs");
+			t.insert("ca");
+			assertTrue(t.remove("cart"));
+			assertFalse(t.remove("cat"));
+		}
+		assertEquals(words(s), words(copy));
+		assertEquals(Arrays.asList("ca", "car", "care", "dog", "dogs"), words(copy));
+		assertTrue(copy.contains("dog"));
+		assertFalse(copy.contains("do"));
+	}
+
+	/**
+	 * An empty Strie round-trips, and a snapshot can be followed by other data.
+	 * @throws IOException if a snapshot cannot be read.
+	 */
+	@Test
+	void emptyAndBackToBack() throws IOException{
+
+		Strie empty = read(snapshot(new Strie()));
+		assertEquals(0, empty.numWords());
+		assertTrue(words(empty).isEmpty());
+
+		Strie s = new Strie();
+		s.insert("one");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		s.writeTo(out);
+		s.writeTo(out);
+		ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+		assertEquals(List.of("one"), words(Strie.readFrom(in)));
+	}
+
+	/**
+	 * Every proper prefix of a snapshot is rejected.
+	 * @throws IOException if the full snapshot cannot be read.
+	 */
+	@Test
+	void truncatedIsRejected() throws IOException{
+
+		Strie s = randomStrie(new Random(9), 40, "abcde");
+		byte[] bytes = snapshot(s);
+		for(int length = 0; length < bytes.length; length++) {
+			byte[] part = Arrays.copyOf(bytes, length);
+			assertThrows(IOException.class, () -> read(part), "length " + length);
+		}
+		assertEquals(words(s), words(read(bytes)));
+	}
+
+	/**
+	 * A wrong magic number, version or word count is rejected.
+	 * @throws IOException if the snapshot cannot be written.
+	 */
+	@Test
+	void damagedHeaderIsRejected() throws IOException{
+
+		Strie s = new Strie();
+		s.insert("a");
+		s.insert("ab");
+		s.insert("b");
+		byte[] bytes = snapshot(s);
+		for(int field = 0; field < 3; field++) {
+			byte[] damaged = bytes.clone();
+			ByteBuffer header = ByteBuffer.wrap(damaged);
+			header.putInt(4 * field, header.getInt(4 * field) + 1);
+			assertThrows(IOException.class, () -> read(damaged), "field " + field);
+		}
+	}
+
+	/**
+	 * Returns a snapshot header for numWords words followed by the given node bytes.
+	 * @param numWords the word count in the header.
+	 * @param body the preorder node bytes, varints already encoded.
+	 * @return the stream bytes.
+	 */
+	private static byte[] crafted(int numWords, byte[] body){
+
+		ByteBuffer buf = ByteBuffer.allocate(12 + body.length);
+		buf.putInt(StrieSnapshot.MAGIC).putInt(StrieSnapshot.VERSION).putInt(numWords).put(body);
+		return buf.array();
+	}
+
+	/**
+	 * Headers claiming the most children a node can have, nested deep, fail
+	 * with IOException when the stream ends, without presizing every table.
+	 */
+	@Test
+	void craftedWideHeadersAreRejected(){
+
+		int levels = 20000;
+		ByteBuffer body = ByteBuffer.allocate(4 * levels + 3);
+		byte[] wide = {(byte) 0x80, (byte) 0x80, 0x08};  /* varint of 65536 children << 1. */
+		body.put(wide);
+		for(int i = 0; i < levels; i++) {
+			body.put((byte) 'a').put(wide);
+		}
+		byte[] bytes = crafted(1, Arrays.copyOf(body.array(), body.position()));
+		assertThrows(IOException.class, () -> read(bytes));
+	}
+
+	/**
+	 * A child character whose varint decodes to a negative int, or that runs
+	 * past 32 bits, is rejected.
+	 */
+	@Test
+	void craftedCharactersAreRejected(){
+
+		byte[][] chars = {
+			{(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x08},  /* 1 << 31. */
+			{(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x10},  /* 1 << 32. */
+			{(byte) 0x80, (byte) 0x80, 0x04},  /* 65536. */
+		};
+		for(byte[] ch : chars) {
+			ByteBuffer body = ByteBuffer.allocate(ch.length + 2);
+			body.put((byte) 2).put(ch).put((byte) 1);  /* root with one child, a word end. */
+			byte[] bytes = crafted(1, body.array());
+			assertThrows(IOException.class, () -> read(bytes), Arrays.toString(ch));
+		}
+	}
+}
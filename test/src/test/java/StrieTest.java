@@ -0,0 +1,203 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of Strie searches against brute-force references.
+ */
+class StrieTest {
+
+	/**
+	 * Returns the Levenshtein distance of a and b.
+	 * @param a a String.
+	 * @param b a String.
+	 * @return the number of edits.
+	 */
+	private static int distance(String a, String b){
+
+		int[][] d = new int[a.length() + 1][b.length() + 1];
+		for(int i = 0; i <= a.length(); i++) {
+			for(int j = 0; j <= b.length(); j++) {
+				if(i == 0 || j == 0) {
+					d[i][j] = i + j;
+				}
+				else {
+					int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+					d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+				}
+			}
+		}
+		return d[a.length()][b.length()];
+	}
+
+	/**
+	 * Returns the matches as "word:distance" strings.
+	 * @param s a Strie.
+	 * @param word the query.
+	 * @param maxEdits the largest edit distance.
+	 * @return a list.
+	 */
+	private static List<String> fuzzy(Strie s, String word, int maxEdits){
+
+		List<String> result = new ArrayList<>();
+		for(Iterator<Strie.FuzzyMatch> it = s.fuzzySearch(word, maxEdits).iterator(); it.hasNext();) {
+			Strie.FuzzyMatch m = it.next();
+			result.add(m.getWord() + ":" + m.getDistance());
+		}
+		return result;
+	}
+
+	/**
+	 * fuzzySearch finds exactly the words within maxEdits, in ascending order.
+	 */
+	@Test
+	void fuzzySearchAgainstBruteForce(){
+
+		Random random = new Random(6);
+		Strie s = new Strie();
+		TreeSet<String> words = new TreeSet<>();
+		for(int i = 0; i < 400; i++) {
+			String w = Integer.toString(random.nextInt(1 << 20), 3 + random.nextInt(3));
+			s.insert(w);
+			words.add(w);
+		}
+		for(int q = 0; q < 100; q++) {
+			String query = Integer.toString(random.nextInt(1 << 16), 4);
+			for(int maxEdits = 0; maxEdits <= 3; maxEdits++) {
+				List<String> expected = new ArrayList<>();
+				for(String w : words) {
+					int d = distance(query, w);
+					if(d <= maxEdits) {
+						expected.add(w + ":" + d);
+					}
+				}
+				assertEquals(expected, fuzzy(s, query, maxEdits), query + " " + maxEdits);
+			}
+		}
+	}
+
+	/**
+	 * A huge maxEdits returns every word without allocating by it, and a negative one is rejected.
+	 */
+	@Test
+	void fuzzySearchLimits(){
+
+		Strie s = new Strie();
+		s.insert("abc");
+		s.insert("xyzzy");
+		assertEquals(List.of("abc:3", "xyzzy:5"), fuzzy(s, "", Integer.MAX_VALUE));
+		assertEquals(List.of("abc:0"), fuzzy(s, "abc", 0));
+		assertEquals(List.of(), fuzzy(new Strie(), "abc", 2));
+		assertThrows(IllegalArgumentException.class, () -> s.fuzzySearch("abc", -1));
+	}
+
+	/**
+	 * Checks that the tracked node count matches the nodes streamed, and is the estimate.
+	 * @param s a Strie.
+	 */
+	private static void assertNodeCount(Strie s){
+
+		assertEquals(s.numNodes(), s.nodeStream().count());
+		Spliterator<StrieNode> nodes = s.nodeStream().spliterator();
+		assertEquals(s.numNodes(), nodes.estimateSize());
+		assertFalse(nodes.hasCharacteristics(Spliterator.SIZED));
+	}
+
+	/**
+	 * The node count follows inserts and removes, and is kept by every way of building a Strie.
+	 * @throws IOException if the snapshot cannot be read.
+	 */
+	@Test
+	void nodeCount() throws IOException{
+
+		Random random = new Random(8);
+		Strie s = new Strie();
+		assertNodeCount(s);
+		List<String> inserted = new ArrayList<>();
+		for(int step = 0; step < 5000; step++) {
+			String w = Integer.toString(random.nextInt(3000), 3);
+			if(random.nextInt(3) == 0) {
+				s.remove(w);
+			}
+			else {
+				s.insert(w);
+				inserted.add(w);
+			}
+			if(step % 250 == 0) {
+				assertNodeCount(s);
+			}
+		}
+		assertNodeCount(s);
+
+		Strie sorted = new Strie();
+		sorted.insertSorted(new TreeSet<>(inserted).iterator());
+		assertNodeCount(sorted);
+
+		for(int n : new int[] {10, 100000}) {
+			List<String> words = new ArrayList<>();
+			for(int i = 0; i < n; i++) {
+				words.add(Integer.toString(random.nextInt(1 << 30), 36));
+			}
+			assertNodeCount(ParallelStrieBuilder.build(words));
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		s.writeTo(out);
+		Strie copy = Strie.readFrom(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(s.numNodes(), copy.numNodes());
+		assertNodeCount(copy);
+	}
+
+	/**
+	 * RadixStrie skips the empty word, like Strie.
+	 */
+	@Test
+	void radixStrieSkipsEmptyWord(){
+
+		Strie s = new Strie();
+		RadixStrie r = new RadixStrie();
+		for(String w : new String[] {"", "ab", ""}) {
+			s.insert(w);
+			r.insert(w);
+		}
+		assertEquals(s.numWords(), r.numWords());
+		assertEquals(s.contains(""), r.contains(""));
+		assertFalse(r.contains(""));
+		assertFalse(r.remove(""));
+		assertTrue(r.contains("ab"));
+	}
+
+	/**
+	 * DawgBuilder skips the empty word, so a DAWG agrees with the Strie it is built from.
+	 */
+	@Test
+	void dawgSkipsEmptyWord(){
+
+		DawgBuilder builder = new DawgBuilder();
+		builder.add("");
+		builder.add("ab");
+		Dawg d = builder.build();
+		assertFalse(d.contains(""));
+		assertTrue(d.contains("ab"));
+
+		Strie s = new Strie();
+		s.insert("");
+		s.insert("ab");
+		Dawg fromStrie = DawgBuilder.build(s);
+		assertEquals(s.contains(""), fromStrie.contains(""));
+		assertEquals(s.numWords(), fromStrie.numWords());
+	}
+}
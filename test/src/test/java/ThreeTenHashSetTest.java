@@ -0,0 +1,295 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of ThreeTenHashSet: incremental growth and migration, backward-shift
+ * removal, full rehash, and agreement with java.util.HashSet under random changes.
+ */
+class ThreeTenHashSetTest {
+
+	/**
+	 * A key whose hash code is chosen by the test, so clusters can be forced.
+	 */
+	private static final class Key {
+
+		/**
+		 * Identity of the key, used by equals.
+		 */
+		private final int id;
+
+		/**
+		 * The hash code returned.
+		 */
+		private final int hash;
+
+		/**
+		 * Constructor.
+		 * @param id identity of the key.
+		 * @param hash its hash code.
+		 */
+		Key(int id, int hash){
+
+			this.id = id;
+			this.hash = hash;
+		}
+
+		@Override
+		public boolean equals(Object o){
+
+			return o instanceof Key && ((Key) o).id == id;
+		}
+
+		@Override
+		public int hashCode(){
+
+			return hash;
+		}
+
+		@Override
+		public String toString(){
+
+			return "Key" + id;
+		}
+	}
+
+	/**
+	 * Checks that the set holds exactly the items of the reference.
+	 * @param <T> the item type.
+	 * @param expected the reference set.
+	 * @param set the set under test.
+	 */
+	private static <T> void assertSameItems(HashSet<T> expected, ThreeTenHashSet<T> set){
+
+		assertEquals(expected.size(), set.size());
+		HashSet<T> listed = new HashSet<>();
+		for(Iterator<T> it = set.allValues().iterator(); it.hasNext();) {
+			assertTrue(listed.add(it.next()));
+		}
+		assertEquals(expected, listed);
+		for(T item : expected) {
+			assertSame(item, set.get(item));
+		}
+	}
+
+	/**
+	 * Fills a set just past its threshold, so the old array is still being moved.
+	 * @param n the initial length.
+	 * @return a set of the Integers 0 to 3n/4, growing.
+	 */
+	private static ThreeTenHashSet<Integer> growing(int n){
+
+		ThreeTenHashSet<Integer> set = new ThreeTenHashSet<>(n);
+		for(int i = 0; i <= n * 3 / 4; i++) {
+			assertTrue(set.add(i));
+		}
+		assertEquals(2 * n, set.capacity());
+		return set;
+	}
+
+	/**
+	 * Every item stays reachable while growth is under way, and growth finishes.
+	 */
+	@Test
+	void itemsReachableWhileMigrating(){
+
+		ThreeTenHashSet<Integer> set = growing(1 << 12);
+		int n = set.size();
+		for(int i = 0; i < n; i++) {
+			assertTrue(set.contains(i));
+			assertFalse(set.add(i));
+			assertEquals(Integer.valueOf(i), set.addIfAbsent(i));
+		}
+		assertEquals(n, set.size());
+		assertEquals(n, set.allValues().size());
+		assertFalse(set.toString().contains("old"));
+	}
+
+	/**
+	 * Removing items still in the old array works and keeps the size right.
+	 */
+	@Test
+	void removeFromOldArray(){
+
+		ThreeTenHashSet<Integer> set = growing(1 << 12);
+		int n = set.size();
+		for(int i = n - 1; i >= 0; i -= 2) {
+			assertTrue(set.remove(i));
+			assertFalse(set.remove(i));
+		}
+		for(int i = 0; i < n; i++) {
+			assertEquals(i % 2 != (n - 1) % 2, set.contains(i));
+		}
+		assertEquals(n / 2, set.size());
+	}
+
+	/**
+	 * Lookups leave the arrays alone, even while the old array is being moved.
+	 */
+	@Test
+	void readsDoNotMigrate(){
+
+		ThreeTenHashSet<Integer> set = growing(1 << 10);
+		String before = set.toStringDebug();
+		assertTrue(before.contains("old"));
+		for(int i = 0; i < 4 * set.capacity(); i++) {
+			set.contains(i);
+			set.get(i);
+		}
+		assertEquals(before, set.toStringDebug());
+	}
+
+	/**
+	 * Several threads can read a set no one is changing, in the middle of growth.
+	 * @throws InterruptedException if interrupted.
+	 */
+	@Test
+	void concurrentReadsWhileMigrating() throws InterruptedException{
+
+		ThreeTenHashSet<Integer> set = growing(1 << 16);
+		int n = set.size();
+		AtomicInteger wrong = new AtomicInteger();
+		Thread[] threads = new Thread[4];
+		for(int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				try {
+					for(int i = 0; i < n; i++) {
+						if(!set.contains(i) || set.contains(-i - 1)) {
+							wrong.incrementAndGet();
+						}
+					}
+				}
+				catch(RuntimeException e) {
+					wrong.incrementAndGet();
+				}
+			});
+			threads[t].start();
+		}
+		for(Thread t : threads) {
+			t.join();
+		}
+		assertEquals(0, wrong.get());
+	}
+
+	/**
+	 * Removal shifts clusters back, in a nearly full array where they wrap past its end.
+	 */
+	@Test
+	void backwardShiftInFullArray(){
+
+		Random random = new Random(3);
+		for(int round = 0; round < 50; round++) {
+			ThreeTenHashSet<Key> set = new ThreeTenHashSet<>(64, 0.95);
+			HashSet<Key> expected = new HashSet<>();
+			Key[] keys = new Key[60];
+			for(int i = 0; i < keys.length; i++) {
+				keys[i] = new Key(i, random.nextInt(8));  /* eight hash codes, so a few long clusters. */
+				assertTrue(set.add(keys[i]));
+				expected.add(keys[i]);
+			}
+			assertEquals(64, set.capacity());
+			for(int step = 0; step < 200; step++) {
+				Key k = keys[random.nextInt(keys.length)];
+				if(random.nextBoolean()) {
+					assertEquals(expected.remove(k), set.remove(k));
+				}
+				else {
+					assertEquals(expected.add(k), set.add(k));
+				}
+				assertSameItems(expected, set);
+			}
+			assertEquals(64, set.capacity());
+		}
+	}
+
+	/**
+	 * A full rehash, also from the middle of growth, keeps every item.
+	 */
+	@Test
+	void rehashAllAtOnce(){
+
+		ThreeTenHashSet<Integer> set = growing(1 << 8);
+		assertFalse(set.rehash(set.capacity()));
+		assertTrue(set.rehash(5000));
+		assertEquals(8192, set.capacity());
+		assertFalse(set.toStringDebug().contains("old"));
+		for(int i = 0; i <= (1 << 8) * 3 / 4; i++) {
+			assertTrue(set.contains(i));
+		}
+	}
+
+	/**
+	 * Null is never stored and the load must be a fraction.
+	 */
+	@Test
+	void nullAndLoad(){
+
+		ThreeTenHashSet<String> set = new ThreeTenHashSet<>(2);
+		assertFalse(set.add(null));
+		assertNull(set.addIfAbsent(null));
+		assertFalse(set.remove(null));
+		assertFalse(set.contains(null));
+		assertEquals(0, set.size());
+		assertThrows(IllegalArgumentException.class, () -> new ThreeTenHashSet<String>(2, 1.0));
+		assertThrows(IllegalArgumentException.class, () -> new ThreeTenHashSet<String>(2, 0));
+	}
+
+	/**
+	 * Similar String keys do not pile up into long clusters.
+	 */
+	@Test
+	void similarKeysSpreadOut(){
+
+		ThreeTenHashSet<String> set = new ThreeTenHashSet<>(1 << 18);
+		for(int i = 0; i < 100000; i++) {
+			set.add("k" + i);
+		}
+		assertTrue(set.stats().maxDisplacement() < 64, set.stats().toString());
+	}
+
+	/**
+	 * Random adds, removes and lookups from a tiny table agree with HashSet,
+	 * for well spread keys and for keys that differ only in high bits.
+	 */
+	@Test
+	void differentialAgainstHashSet(){
+
+		Random random = new Random(7);
+		for(int round = 0; round < 60; round++) {
+			ThreeTenHashSet<Integer> set = new ThreeTenHashSet<>(2, 0.5 + random.nextDouble() * 0.4);
+			HashSet<Integer> expected = new HashSet<>();
+			int range = 10 + random.nextInt(5000);
+			int scale = round % 3 == 0 ? 1024 : 1;
+			for(int step = 0; step < 20000; step++) {
+				Integer k = random.nextInt(range) * scale;
+				int op = random.nextInt(10);
+				if(op < 5) {
+					assertEquals(expected.add(k), set.add(k));
+				}
+				else if(op < 7) {
+					assertEquals(expected.remove(k), set.remove(k));
+				}
+				else if(op < 8) {
+					boolean had = !expected.add(k);
+					Integer found = set.addIfAbsent(k);
+					assertEquals(had, found != null);
+				}
+				else {
+					assertEquals(expected.contains(k), set.contains(k));
+				}
+				assertEquals(expected.size(), set.size());
+			}
+			assertSameItems(expected, set);
+		}
+	}
+}
@@ -0,0 +1,105 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of WeightedStrie.topK against a brute-force ranking, including
+ * scores of Long.MIN_VALUE and subtrees emptied by removal.
+ */
+class WeightedStrieTest {
+
+	/**
+	 * Returns the suggestions as "word=score" strings.
+	 * @param s a WeightedStrie.
+	 * @param prefix the prefix.
+	 * @param k the number of words.
+	 * @return a list.
+	 */
+	private static List<String> topK(WeightedStrie s, String prefix, int k){
+
+		List<String> result = new ArrayList<>();
+		for(Iterator<WeightedStrie.Suggestion> it = s.topK(prefix, k).iterator(); it.hasNext();) {
+			WeightedStrie.Suggestion g = it.next();
+			result.add(g.getWord() + "=" + g.getScore());
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the k highest scoring words of expected starting with prefix, ties by word.
+	 * @param expected the reference words and scores.
+	 * @param prefix the prefix.
+	 * @param k the number of words.
+	 * @return a list of "word=score" strings.
+	 */
+	private static List<String> bruteForce(TreeMap<String, Long> expected, String prefix, int k){
+
+		List<Map.Entry<String, Long>> matches = new ArrayList<>();
+		for(Map.Entry<String, Long> e : expected.entrySet()) {
+			if(e.getKey().startsWith(prefix)) {
+				matches.add(e);
+			}
+		}
+		matches.sort((a, b) -> a.getValue().equals(b.getValue())
+				? a.getKey().compareTo(b.getKey()) : Long.compare(b.getValue(), a.getValue()));
+		List<String> result = new ArrayList<>();
+		for(int i = 0; i < Math.min(k, matches.size()); i++) {
+			result.add(matches.get(i).getKey() + "=" + matches.get(i).getValue());
+		}
+		return result;
+	}
+
+	/**
+	 * Words scored Long.MIN_VALUE are still suggested.
+	 */
+	@Test
+	void minimumScoreIsAWord(){
+
+		WeightedStrie s = new WeightedStrie();
+		s.insert("ab", Long.MIN_VALUE);
+		s.insert("abc", Long.MIN_VALUE);
+		assertEquals(List.of("ab=" + Long.MIN_VALUE, "abc=" + Long.MIN_VALUE), topK(s, "a", 5));
+		s.remove("ab");
+		assertEquals(List.of("abc=" + Long.MIN_VALUE), topK(s, "ab", 5));
+		s.remove("abc");
+		assertEquals(List.of(), topK(s, "", 5));
+		assertNull(s.getScore("abc"));
+	}
+
+	/**
+	 * Random inserts, rescoring and removes agree with a brute-force ranking.
+	 */
+	@Test
+	void differentialAgainstBruteForce(){
+
+		Random random = new Random(4);
+		long[] scores = {Long.MIN_VALUE, Long.MIN_VALUE + 1, -1, 0, 1, 5, Long.MAX_VALUE};
+		WeightedStrie s = new WeightedStrie();
+		TreeMap<String, Long> expected = new TreeMap<>();
+		for(int step = 0; step < 5000; step++) {
+			String w = Integer.toString(random.nextInt(300), 4);
+			if(random.nextInt(3) == 0) {
+				expected.remove(w);
+				s.remove(w);
+			}
+			else {
+				long score = scores[random.nextInt(scores.length)];
+				expected.put(w, score);
+				s.insert(w, score);
+			}
+			String p = Integer.toString(random.nextInt(300), 4);
+			String prefix = p.substring(0, Math.min(p.length(), random.nextInt(4)));
+			int k = 1 + random.nextInt(8);
+			assertEquals(bruteForce(expected, prefix, k), topK(s, prefix, k), prefix);
+			assertEquals(expected.size(), s.numWords());
+		}
+	}
+}